@@ -0,0 +1,109 @@
+package com.wenxt.leavemanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.repository.CompOffBalanceRepository;
+import com.wenxt.leavemanagement.repository.CompOffConsumptionRepository;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.repository.OutboxEventRepository;
+import com.wenxt.leavemanagement.service.CompOffBalanceCache;
+import com.wenxt.leavemanagement.service.CompOffBalanceService;
+import com.wenxt.leavemanagement.service.CompOffService;
+import com.wenxt.leavemanagement.service.OutboxService;
+import com.wenxt.leavemanagement.util.HolidayChecker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIFO deduction in CompOffService.useCompOff against 10 to 10k open credits held in an
+ * in-memory repository, so the numbers cover the service's own work (keyset windows,
+ * BigDecimal arithmetic, consumption rows) and not the database.
+ * Credits are restored before every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompOffFifoBenchmark {
+
+    private static final long EMPLOYEE = 1L;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int credits;
+
+    private List<CompOff> lots;
+    private long[] workedEpochDays;
+    private BigDecimal allCredits;
+    private CompOffService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lots = new ArrayList<>(credits);
+        workedEpochDays = new long[credits];
+        LocalDate first = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < credits; i++) {
+            CompOff lot = new CompOff();
+            lot.setId((long) i + 1);
+            lot.setEmployeeId(EMPLOYEE);
+            lot.setWorkedDate(first.plusDays(i));
+            lot.setDays(BigDecimal.ONE);
+            lots.add(lot);
+            workedEpochDays[i] = lot.getWorkedDate().toEpochDay();
+        }
+        allCredits = BigDecimal.valueOf(credits);
+
+        CompOffRepository compOffRepository = InMemoryRepositories.stub(CompOffRepository.class,
+                Map.of("findOpenLots", args -> findOpenLots((CompOffStatus) args[1], (LocalDate) args[2], (Pageable) args[3])));
+        CompOffConsumptionRepository consumptionRepository = InMemoryRepositories.stub(CompOffConsumptionRepository.class,
+                Map.of("saveAll", args -> args[0]));
+        CompOffBalanceRepository balanceRepository = InMemoryRepositories.stub(CompOffBalanceRepository.class,
+                Map.of("adjust", args -> 1));
+
+        CompOffBalanceCache cache = new CompOffBalanceCache(10_000, 60_000);
+        CompOffBalanceService balanceService = new CompOffBalanceService(balanceRepository, compOffRepository, cache, null);
+        OutboxEventRepository outboxRepository = InMemoryRepositories.stub(OutboxEventRepository.class,
+                Map.of("save", args -> args[0]));
+        OutboxService outbox = new OutboxService(outboxRepository, new ObjectMapper().findAndRegisterModules());
+        service = new CompOffService(compOffRepository, consumptionRepository, balanceService, cache, new HolidayChecker(), outbox, 90);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreCredits() {
+        for (CompOff lot : lots) {
+            lot.setRemainingDays(BigDecimal.ONE);
+            lot.setStatus(CompOffStatus.EARNED);
+            lot.setUsedLeaveApplicationId(null);
+        }
+    }
+
+    // The common case: a one-day leave drawn from the oldest credit
+    @Benchmark
+    public void deductOneDay() {
+        service.useCompOff(EMPLOYEE, BigDecimal.ONE, 1L);
+    }
+
+    // Worst case: a leave that drains every credit the employee has
+    @Benchmark
+    public void drainAllCredits() {
+        service.useCompOff(EMPLOYEE, allCredits, 1L);
+    }
+
+    private List<CompOff> findOpenLots(CompOffStatus status, LocalDate after, Pageable page) {
+        int from = Arrays.binarySearch(workedEpochDays, after.toEpochDay());
+        from = from >= 0 ? from + 1 : -from - 1;
+        List<CompOff> window = new ArrayList<>(page.getPageSize());
+        for (int i = from; i < lots.size() && window.size() < page.getPageSize(); i++) {
+            CompOff lot = lots.get(i);
+            if (lot.getStatus() == status && lot.getRemainingDays().signum() > 0) window.add(lot);
+        }
+        return window;
+    }
+}
@@ -0,0 +1,42 @@
+package com.wenxt.leavemanagement.benchmark;
+
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error-body construction in GlobalExceptionHandler. Validation failures are a normal
+ * response on the apply endpoints, so their cost and allocation matter under load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorBodyBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final BadRequestException badRequest = new BadRequestException("Insufficient Comp-Off balance.");
+    private final IllegalStateException failure = new IllegalStateException("Comp-off balance row could not be created");
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> badRequest() {
+        return handler.handleBadRequest(badRequest);
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> unexpectedFailure() {
+        return handler.handleGenericException(failure);
+    }
+
+    // Includes creating the exception, as a service does when it rejects a request
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> throwAndHandle() {
+        return handler.handleBadRequest(new BadRequestException("Selected dates are non-working days."));
+    }
+}
@@ -0,0 +1,67 @@
+package com.wenxt.leavemanagement.benchmark;
+
+import com.wenxt.leavemanagement.util.HolidayCalendarSnapshot;
+import com.wenxt.leavemanagement.util.HolidayChecker;
+import com.wenxt.leavemanagement.util.WorkingCalendar;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-day lookups as done by comp-off banking and the half-day check,
+ * on the default calendar and on an employee-assigned regional one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HolidayCheckerBenchmark {
+
+    private static final int DATES = 1024;
+    private static final long REGIONAL_EMPLOYEE = 42L;
+
+    private final HolidayChecker holidayChecker = new HolidayChecker();
+    private final LocalDate[] dates = new LocalDate[DATES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<LocalDate> fixed = new ArrayList<>();
+        for (int year = 2024; year <= 2028; year++) {
+            for (int i = 0; i < 12; i++) {
+                fixed.add(LocalDate.of(year, i + 1, 10 + i));
+            }
+        }
+        WorkingCalendar regional = new WorkingCalendar("REGIONAL", Set.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY),
+                List.of(MonthDay.of(5, 1), MonthDay.of(11, 1)), fixed);
+        holidayChecker.replaceSnapshot(new HolidayCalendarSnapshot(
+                WorkingCalendar.builtIn(HolidayChecker.DEFAULT_CALENDAR), Map.of(REGIONAL_EMPLOYEE, regional)));
+
+        Random random = new Random(7);
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < DATES; i++) {
+            dates[i] = base.plusDays(random.nextInt(5 * 365));
+        }
+    }
+
+    @Benchmark
+    public boolean defaultCalendar() {
+        return holidayChecker.isNonWorkingDay(nextDate());
+    }
+
+    @Benchmark
+    public boolean assignedCalendar() {
+        return holidayChecker.isNonWorkingDay(REGIONAL_EMPLOYEE, nextDate());
+    }
+
+    private LocalDate nextDate() {
+        next = (next + 1) & (DATES - 1);
+        return dates[next];
+    }
+}
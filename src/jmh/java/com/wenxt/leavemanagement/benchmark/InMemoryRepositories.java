@@ -0,0 +1,30 @@
+package com.wenxt.leavemanagement.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds repository stand-ins for benchmarks: each named method is answered by the given
+ * function, anything else fails loudly so a benchmark never silently measures a no-op.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (self, method, args) -> {
+                    Function<Object[], Object> handler = methods.get(method.getName());
+                    if (handler != null) return handler.apply(args);
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(self);
+                        case "equals" -> self == args[0];
+                        case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                        default -> throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                    };
+                });
+        return repositoryType.cast(proxy);
+    }
+}
@@ -0,0 +1,63 @@
+package com.wenxt.leavemanagement.benchmark;
+
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.service.LeaveApplicationService;
+import com.wenxt.leavemanagement.util.HolidayChecker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calculateLeaveDuration over 1 to 365 calendar days, for full leave and for leave
+ * ending on a half day. Only the holiday checker and the meter registry are involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaveDurationBenchmark {
+
+    @Param({"1", "5", "30", "120", "365"})
+    public int days;
+
+    private LeaveApplicationService service;
+    private LeaveApplication fullLeave;
+    private LeaveApplication halfDayEnding;
+
+    @Setup
+    public void setUp() {
+        service = new LeaveApplicationService(null, new HolidayChecker(), null, null, null, null, null, "", new SimpleMeterRegistry());
+
+        // Starts on a Monday so even the one-day range contains a working day
+        LocalDate start = LocalDate.of(2025, 3, 3);
+        fullLeave = leave(start, start.plusDays(days - 1L), null);
+        halfDayEnding = leave(start, start.plusDays(days - 1L), HalfDayType.SECOND_HALF);
+    }
+
+    @Benchmark
+    public BigDecimal fullDays() {
+        return service.calculateLeaveDuration(fullLeave);
+    }
+
+    @Benchmark
+    public BigDecimal endingOnHalfDay() {
+        return service.calculateLeaveDuration(halfDayEnding);
+    }
+
+    private static LeaveApplication leave(LocalDate start, LocalDate end, HalfDayType halfDay) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setEmployeeId(1L);
+        leave.setLeaveType(LeaveType.VACATION);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        leave.setHalfDayType(halfDay);
+        return leave;
+    }
+}
@@ -0,0 +1,237 @@
+package com.wenxt.leavemanagement.Webconfig;
+
+import com.wenxt.leavemanagement.util.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Honours the Idempotency-Key header on submission endpoints.
+ * <p>
+ * The first request with a key runs normally and its response (status, headers, body)
+ * is kept in memory; replays within the TTL get that response back without reaching the
+ * controller or the database. A duplicate arriving while the first is still running waits
+ * for it. 5xx responses are not kept, so the client's next retry runs again.
+ * Keys are scoped to the request path. Each key also keeps a fingerprint of the request it was
+ * first used with (content type and a SHA-256 of the body; for multipart, of every part), and a
+ * request that reuses the key with a different fingerprint is refused with 422. A non-multipart
+ * body is buffered to compute it, so one larger than the configured limit is refused with 413.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    // Set from the stored status, content type and body, or by the container
+    private static final Set<String> UNSTORED_HEADERS = Set.of(
+            "content-type", "content-length", "transfer-encoding", "date", REPLAYED_HEADER.toLowerCase());
+
+    private final IdempotencyStore<StoredResponse> store;
+    private final long waitTimeoutMillis;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyStore<StoredResponse> store, long waitTimeoutMillis, int maxBodyBytes) {
+        this.store = store;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key == null || !"POST".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        // Multipart parts are parsed and spooled by the container once and read again by the controller;
+        // any other body is buffered here so the controller can still read it
+        HttpServletRequest forwarded = request;
+        MessageDigest digest = sha256();
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase().startsWith("multipart/")) {
+            digest.update("multipart/".getBytes(StandardCharsets.UTF_8));
+            try {
+                for (Part part : request.getParts()) {
+                    digestPart(part, digest);
+                }
+            } catch (IllegalStateException e) {
+                // Over the multipart limits: let the regular error handling answer
+                chain.doFilter(request, response);
+                return;
+            }
+        } else {
+            byte[] body = request.getContentLengthLong() > maxBodyBytes
+                    ? null : request.getInputStream().readNBytes(maxBodyBytes + 1);
+            if (body == null || body.length > maxBodyBytes) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                        "Request body exceeds " + maxBodyBytes + " bytes for an " + HEADER + " request");
+                return;
+            }
+            digest.update(String.valueOf(contentType).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body);
+            forwarded = new BufferedBodyRequest(request, body);
+        }
+        String fingerprint = HexFormat.of().formatHex(digest.digest());
+
+        String scopedKey = request.getRequestURI() + " " + key;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        while (true) {
+            CompletableFuture<StoredResponse> first;
+            try {
+                first = store.claim(scopedKey, fingerprint);
+            } catch (IdempotencyStore.KeyReusedException e) {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), HEADER + " was already used for a different request");
+                return;
+            }
+            if (first == null) {
+                execute(scopedKey, forwarded, response, chain);
+                return;
+            }
+            try {
+                replay(first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS), response);
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // The first attempt failed and released the key: try to claim it ourselves
+            } catch (TimeoutException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + HEADER + " is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+    }
+
+    private void execute(String scopedKey, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.abandon(scopedKey);
+            throw e;
+        }
+
+        if (wrapper.getStatus() >= 500) {
+            store.abandon(scopedKey);
+        } else {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : wrapper.getHeaderNames()) {
+                if (!UNSTORED_HEADERS.contains(name.toLowerCase())) {
+                    headers.putIfAbsent(name, List.copyOf(wrapper.getHeaders(name)));
+                }
+            }
+            store.complete(scopedKey, new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                    headers, wrapper.getContentAsByteArray()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (stored.contentType() != null) response.setContentType(stored.contentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    // Boundaries differ between retries of the same form, so only the parts themselves count
+    private static void digestPart(Part part, MessageDigest digest) throws IOException {
+        for (String header : new String[]{part.getName(), part.getSubmittedFileName(), part.getContentType()}) {
+            digest.update(String.valueOf(header).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        try (InputStream in = part.getInputStream();
+             OutputStream sink = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            in.transferTo(sink);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record StoredResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -1,16 +1,55 @@
 package com.wenxt.leavemanagement.Webconfig;
 
+import com.wenxt.leavemanagement.util.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Pattern;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Files saved before /api/attachments were named <uuid>_<original name>
+    private static final Pattern LEGACY_UPLOAD = Pattern.compile(
+            "leaves/[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}_[^/]+");
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Exposes the 'uploads' folder to the web
+        // Exposes the 'uploads' folder to the web for URLs issued before /api/attachments.
+        // Those names embed a UUID and never change, so they can be cached as well.
+        // Content-addressed blobs share the folder but are served only by /api/attachments.
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations("file:uploads/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate())
+                .resourceChain(true)
+                .addResolver(new PathResourceResolver() {
+                    @Override
+                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                        return LEGACY_UPLOAD.matcher(resourcePath).matches() ? super.getResource(resourcePath, location) : null;
+                    }
+                });
+    }
+
+    // Submission endpoints that clients retry on timeouts
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            @Value("${idempotency.paths:/api/leave/apply,/api/compoff/request,/api/admin/compoff/request,/api/admin/leaves/record}") String[] paths,
+            @Value("${idempotency.max-keys:10000}") int maxKeys,
+            @Value("${idempotency.ttl-ms:86400000}") long ttlMillis,
+            @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMillis,
+            @Value("${idempotency.max-body-bytes:1048576}") int maxBodyBytes) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(new IdempotencyStore<>(maxKeys, ttlMillis), waitTimeoutMillis, maxBodyBytes));
+        registration.addUrlPatterns(paths);
+        return registration;
     }
-}
\ No newline at end of file
+}
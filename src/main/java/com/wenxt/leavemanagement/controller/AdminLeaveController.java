@@ -1,20 +1,69 @@
 package com.wenxt.leavemanagement.controller;
 
+import com.wenxt.leavemanagement.dto.BulkCancelRequestDTO;
+import com.wenxt.leavemanagement.dto.BulkCancelResultDTO;
+import com.wenxt.leavemanagement.dto.LeaveImportResultDTO;
+import com.wenxt.leavemanagement.dto.LeavePageDTO;
 import com.wenxt.leavemanagement.dto.LeaveRequestDTO;
 import com.wenxt.leavemanagement.dto.LeaveResponse;
+import com.wenxt.leavemanagement.dto.LeaveSearchCriteria;
+import com.wenxt.leavemanagement.dto.TeamAvailabilityDTO;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
 import com.wenxt.leavemanagement.enums.LeaveType;
 import com.wenxt.leavemanagement.model.LeaveApplication;
 import com.wenxt.leavemanagement.service.LeaveApplicationService;
+import com.wenxt.leavemanagement.service.LeaveImportService;
+import com.wenxt.leavemanagement.service.TeamAvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin/leaves")
 public class AdminLeaveController {
 
     private final LeaveApplicationService leaveService;
+    private final TeamAvailabilityService teamAvailability;
+    private final LeaveImportService leaveImportService;
 
-    public AdminLeaveController(LeaveApplicationService leaveService) {
+    public AdminLeaveController(LeaveApplicationService leaveService,
+                                TeamAvailabilityService teamAvailability,
+                                LeaveImportService leaveImportService) {
         this.leaveService = leaveService;
+        this.teamAvailability = teamAvailability;
+        this.leaveImportService = leaveImportService;
+    }
+
+    @GetMapping
+    public ResponseEntity<LeavePageDTO> searchLeaves(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) LeaveStatus status,
+            @RequestParam(required = false) LeaveType leaveType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        LeaveSearchCriteria criteria = new LeaveSearchCriteria();
+        criteria.setEmployeeId(employeeId);
+        criteria.setStatus(status);
+        criteria.setLeaveType(leaveType);
+        criteria.setFromDate(fromDate);
+        criteria.setToDate(toDate);
+        return ResponseEntity.ok(leaveService.searchLeaves(criteria, cursor, size));
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<TeamAvailabilityDTO> getAvailability(
+            @RequestParam List<Long> employeeIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        return ResponseEntity.ok(teamAvailability.getAvailability(employeeIds, fromDate, toDate));
     }
 
     @PostMapping("/record")
@@ -40,6 +89,20 @@ public class AdminLeaveController {
         LeaveResponse response = leaveService.applyAdminLeave(leave, dto.isConfirmLossOfPay());
         return ResponseEntity.ok(response);
     }
+    // Body is read as a stream: CSV with a header row, or one JSON object per line
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<LeaveImportResultDTO> importAdminLeaves(HttpServletRequest request) throws IOException {
+        LeaveImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? LeaveImportService.Format.CSV : LeaveImportService.Format.NDJSON;
+        return ResponseEntity.ok(leaveImportService.importAdminLeaves(request.getInputStream(), format));
+    }
+
+    @PatchMapping("/cancel/bulk")
+    public ResponseEntity<BulkCancelResultDTO> cancelAdminLeaves(@RequestBody BulkCancelRequestDTO request) {
+        return ResponseEntity.ok(leaveService.cancelAdminLeaves(request));
+    }
+
     @PatchMapping("/cancel/{id}")
     public ResponseEntity<String> cancelAdminLeave(@PathVariable Long id) {
         leaveService.cancelAdminLeave(id);
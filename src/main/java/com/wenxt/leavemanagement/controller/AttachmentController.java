@@ -0,0 +1,151 @@
+package com.wenxt.leavemanagement.controller;
+
+import com.wenxt.leavemanagement.model.LeaveAttachment;
+import com.wenxt.leavemanagement.service.AttachmentStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves content-addressed attachments.
+ * <p>
+ * The name is the SHA-256 of the bytes, so the strong ETag is the hash itself and responses
+ * may be cached forever. Single byte ranges are honoured (If-Range aware). The body goes out
+ * through Tomcat's sendfile when the connector supports it, otherwise through
+ * FileChannel.transferTo; in-thread copies are capped by a semaphore.
+ */
+@RestController
+@RequestMapping("/api/attachments")
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "private, max-age=31536000, immutable";
+
+    private final AttachmentStorageService attachmentStorage;
+    private final Semaphore transfers;
+    private final long acquireTimeoutMillis;
+
+    public AttachmentController(AttachmentStorageService attachmentStorage,
+                                @Value("${file.download.max-concurrent-transfers:64}") int maxConcurrentTransfers,
+                                @Value("${file.download.acquire-timeout-ms:2000}") long acquireTimeoutMillis) {
+        this.attachmentStorage = attachmentStorage;
+        this.transfers = new Semaphore(maxConcurrentTransfers);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @GetMapping("/{hash}")
+    public void download(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, InterruptedException {
+        if (!AttachmentStorageService.isContentHash(hash)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Same name, same bytes: revalidation never needs the database or the disk
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        Optional<LeaveAttachment> metadata = attachmentStorage.findMetadata(hash);
+        Path blob = attachmentStorage.resolve(hash);
+        if (metadata.isEmpty() || !Files.isRegularFile(blob)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        long length = Files.size(blob);
+        LeaveAttachment attachment = metadata.get();
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Multi-range requests are answered with the full body, which the spec allows
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                long rangeStart = range.getRangeStart(length);
+                long rangeEnd = range.getRangeEnd(length);
+                if (length == 0 || rangeStart >= length || rangeStart > rangeEnd) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                start = rangeStart;
+                end = rangeEnd;
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(attachment.getContentType() != null ? attachment.getContentType() : "application/octet-stream");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(attachment.getOriginalName() != null ? attachment.getOriginalName() : hash, StandardCharsets.UTF_8)
+                .build().toString());
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat's poller streams the file with sendfile(2) once this method returns
+            request.setAttribute(SENDFILE_FILENAME, blob.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        if (!transfers.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            response.reset();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        try (FileChannel source = FileChannel.open(blob, StandardOpenOption.READ)) {
+            WritableByteChannel sink = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long sent = source.transferTo(position, count, sink);
+                if (sent <= 0) break;
+                position += sent;
+                count -= sent;
+            }
+        } finally {
+            transfers.release();
+        }
+    }
+}
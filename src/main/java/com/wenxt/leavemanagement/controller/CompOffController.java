@@ -1,21 +1,39 @@
 package com.wenxt.leavemanagement.controller;
 
+import com.wenxt.leavemanagement.dto.CompOffDecisionRequestDTO;
+import com.wenxt.leavemanagement.dto.CompOffDecisionResultDTO;
+import com.wenxt.leavemanagement.dto.CompOffExpiryResultDTO;
 import com.wenxt.leavemanagement.dto.CompOffRequestDTO;
 import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.service.CompOffBalanceCache;
+import com.wenxt.leavemanagement.service.CompOffBalanceService;
+import com.wenxt.leavemanagement.service.CompOffExpiryService;
 import com.wenxt.leavemanagement.service.CompOffService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 public class CompOffController {
 
     private final CompOffService compOffService;
+    private final CompOffBalanceService compOffBalanceService;
+    private final CompOffBalanceCache compOffBalanceCache;
+    private final CompOffExpiryService compOffExpiryService;
 
-    public CompOffController(CompOffService compOffService) {
+    public CompOffController(CompOffService compOffService,
+                             CompOffBalanceService compOffBalanceService,
+                             CompOffBalanceCache compOffBalanceCache,
+                             CompOffExpiryService compOffExpiryService) {
         this.compOffService = compOffService;
+        this.compOffBalanceService = compOffBalanceService;
+        this.compOffBalanceCache = compOffBalanceCache;
+        this.compOffExpiryService = compOffExpiryService;
     }
 
     @PostMapping("/admin/compoff/request")
@@ -40,6 +58,16 @@ public class CompOffController {
         }
     }
 
+    @PatchMapping("/compoff/approve/bulk")
+    public ResponseEntity<CompOffDecisionResultDTO> approveCompOffs(@RequestBody CompOffDecisionRequestDTO request) {
+        return ResponseEntity.ok(compOffService.decideBulk(request, true));
+    }
+
+    @PatchMapping("/compoff/reject/bulk")
+    public ResponseEntity<CompOffDecisionResultDTO> rejectCompOffs(@RequestBody CompOffDecisionRequestDTO request) {
+        return ResponseEntity.ok(compOffService.decideBulk(request, false));
+    }
+
     @PatchMapping("/compoff/approve/{id}")
     public ResponseEntity<String> approveCompOff(@PathVariable Long id) {
         compOffService.approveCompOff(id);
@@ -50,4 +78,22 @@ public class CompOffController {
     public ResponseEntity<BigDecimal> getBalance(@PathVariable Long employeeId) {
         return ResponseEntity.ok(compOffService.getAvailableCompOffDays(employeeId));
     }
+
+    @GetMapping("/admin/compoff/balance/cache-stats")
+    public ResponseEntity<Map<String, Long>> getBalanceCacheStats() {
+        return ResponseEntity.ok(compOffBalanceCache.stats());
+    }
+
+    @PostMapping("/admin/compoff/balance/reconcile")
+    public ResponseEntity<String> reconcileBalances() {
+        int corrected = compOffBalanceService.reconcile();
+        return ResponseEntity.ok("Comp-Off balances reconciled. Corrected " + corrected + " ledger row(s).");
+    }
+
+    // Runs or resumes the nightly expiry now; date defaults to today
+    @PostMapping("/admin/compoff/expiry/run")
+    public ResponseEntity<CompOffExpiryResultDTO> runExpiry(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(compOffExpiryService.run(date != null ? date : LocalDate.now()));
+    }
 }
\ No newline at end of file
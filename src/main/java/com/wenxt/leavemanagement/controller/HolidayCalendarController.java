@@ -0,0 +1,35 @@
+package com.wenxt.leavemanagement.controller;
+
+import com.wenxt.leavemanagement.dto.HolidayCalendarDTO;
+import com.wenxt.leavemanagement.service.HolidayCalendarService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/holidays")
+public class HolidayCalendarController {
+
+    private final HolidayCalendarService holidayCalendarService;
+
+    public HolidayCalendarController(HolidayCalendarService holidayCalendarService) {
+        this.holidayCalendarService = holidayCalendarService;
+    }
+
+    @PutMapping("/calendars/{code}")
+    public ResponseEntity<String> saveCalendar(@PathVariable String code, @RequestBody HolidayCalendarDTO request) {
+        holidayCalendarService.saveCalendar(code, request);
+        return ResponseEntity.ok("Holiday calendar " + code + " saved.");
+    }
+
+    @PutMapping("/employees/{employeeId}/calendar/{code}")
+    public ResponseEntity<String> assignEmployee(@PathVariable Long employeeId, @PathVariable String code) {
+        holidayCalendarService.assignEmployee(employeeId, code);
+        return ResponseEntity.ok("Employee " + employeeId + " now follows holiday calendar " + code + ".");
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<String> reload() {
+        holidayCalendarService.reload();
+        return ResponseEntity.ok("Holiday calendars reloaded.");
+    }
+}
@@ -1,11 +1,16 @@
 package com.wenxt.leavemanagement.controller;
 
+import com.wenxt.leavemanagement.dto.LeaveApplicationDTO;
+import com.wenxt.leavemanagement.dto.LeavePageDTO;
 import com.wenxt.leavemanagement.dto.LeaveResponse;
+import com.wenxt.leavemanagement.dto.LeaveSearchCriteria;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
 import com.wenxt.leavemanagement.enums.LeaveType;
 import com.wenxt.leavemanagement.model.LeaveApplication;
 import com.wenxt.leavemanagement.model.LeaveAttachment;
+import com.wenxt.leavemanagement.service.AttachmentStorageService;
+import com.wenxt.leavemanagement.service.LeaveAccrualService;
 import com.wenxt.leavemanagement.service.LeaveApplicationService;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -13,9 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -24,12 +27,15 @@ import java.util.*;
 public class LeaveApplicationControllerV2 {
 
     private final LeaveApplicationService service;
+    private final AttachmentStorageService attachmentStorage;
+    private final LeaveAccrualService accrualService;
 
-    @Value("${file.upload-dir:uploads/leaves}")
-    private String uploadDir;
-
-    public LeaveApplicationControllerV2(LeaveApplicationService service) {
+    public LeaveApplicationControllerV2(LeaveApplicationService service,
+                                        AttachmentStorageService attachmentStorage,
+                                        LeaveAccrualService accrualService) {
         this.service = service;
+        this.attachmentStorage = attachmentStorage;
+        this.accrualService = accrualService;
     }
 
     @PostMapping(value = "/apply", consumes = "multipart/form-data")
@@ -62,17 +68,17 @@ public class LeaveApplicationControllerV2 {
             leave.setHalfDayType(com.wenxt.leavemanagement.enums.HalfDayType.valueOf(halfDayType.toUpperCase()));
         }
 
-        // File handling logic...
-        if (files != null && files.length > 0) {
-            Path uploadPath = Paths.get(uploadDir);
-            Files.createDirectories(uploadPath);
+        // File handling logic: stored by content hash, orphans are garbage-collected by the storage service
+        List<AttachmentStorageService.StoredAttachment> storedFiles = attachmentStorage.storeAll(files);
+        if (!storedFiles.isEmpty()) {
             List<LeaveAttachment> attachments = new ArrayList<>();
-            for (MultipartFile file : files) {
-                if (file.isEmpty()) continue;
-                String uniqueName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-                Files.write(uploadPath.resolve(uniqueName), file.getBytes());
+            for (AttachmentStorageService.StoredAttachment stored : storedFiles) {
                 LeaveAttachment attachment = new LeaveAttachment();
-                attachment.setFileUrl(uniqueName);
+                attachment.setFileUrl(stored.contentHash());
+                attachment.setContentHash(stored.contentHash());
+                attachment.setOriginalName(stored.originalName());
+                attachment.setContentType(stored.contentType());
+                attachment.setSizeBytes(stored.sizeBytes());
                 attachment.setLeaveApplication(leave);
                 attachments.add(attachment);
             }
@@ -80,13 +86,34 @@ public class LeaveApplicationControllerV2 {
         }
 
         // 🔹 Pass the confirmation flag to the service
-        LeaveResponse response = service.applyLeave(leave, confirmLossOfPay);
+        return service.applyLeave(leave, confirmLossOfPay);
+    }
 
-        // Clean up circular reference for JSON response
-        if (response.getLeaveApplication() != null && response.getLeaveApplication().getAttachments() != null) {
-            response.getLeaveApplication().getAttachments().forEach(a -> a.setLeaveApplication(null));
-        }
+    @GetMapping("/{applicationId}")
+    public LeaveApplicationDTO getLeave(@PathVariable Long applicationId) {
+        return service.getLeave(applicationId);
+    }
+
+    @GetMapping("/balance/{employeeId}")
+    public Map<LeaveType, BigDecimal> getBalances(@PathVariable Long employeeId) {
+        return accrualService.getBalances(employeeId, LocalDate.now());
+    }
 
-        return response;
+    @GetMapping("/employee/{employeeId}")
+    public LeavePageDTO listEmployeeLeaves(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) LeaveStatus status,
+            @RequestParam(required = false) LeaveType leaveType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LeaveSearchCriteria criteria = new LeaveSearchCriteria();
+        criteria.setEmployeeId(employeeId);
+        criteria.setStatus(status);
+        criteria.setLeaveType(leaveType);
+        criteria.setFromDate(fromDate);
+        criteria.setToDate(toDate);
+        return service.searchLeaves(criteria, cursor, size);
     }
-}
\ No newline at end of file
+}
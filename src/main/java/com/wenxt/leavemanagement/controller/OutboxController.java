@@ -0,0 +1,30 @@
+package com.wenxt.leavemanagement.controller;
+
+import com.wenxt.leavemanagement.service.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+public class OutboxController {
+
+    private final OutboxService outboxService;
+
+    public OutboxController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Long>> getStats() {
+        return ResponseEntity.ok(outboxService.stats());
+    }
+
+    // Gives parked events a fresh set of attempts, e.g. once a broken consumer is fixed; the next dispatch picks them up
+    @PostMapping("/requeue")
+    public ResponseEntity<String> requeueParked() {
+        int requeued = outboxService.requeueParked();
+        return ResponseEntity.ok("Requeued " + requeued + " parked outbox event(s).");
+    }
+}
@@ -0,0 +1,57 @@
+package com.wenxt.leavemanagement.controller;
+
+import com.wenxt.leavemanagement.service.LeaveReportService;
+import com.wenxt.leavemanagement.service.LeaveReportService.Format;
+import com.wenxt.leavemanagement.service.LeaveReportService.Granularity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+// Reports are written on an async thread while the query is still running; nothing is buffered in full
+@RestController
+@RequestMapping("/api/admin/reports")
+public class ReportController {
+
+    private final LeaveReportService reportService;
+
+    public ReportController(LeaveReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @GetMapping("/leave-usage")
+    public ResponseEntity<StreamingResponseBody> leaveUsage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "MONTH") Granularity granularity,
+            @RequestParam(defaultValue = "CSV") Format format) {
+        reportService.validateRange(fromDate, toDate);
+        return stream("leave-usage", format,
+                out -> reportService.writeLeaveUsage(fromDate, toDate, granularity, format, out));
+    }
+
+    @GetMapping("/compoff-usage")
+    public ResponseEntity<StreamingResponseBody> compOffUsage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "MONTH") Granularity granularity,
+            @RequestParam(defaultValue = "CSV") Format format) {
+        reportService.validateRange(fromDate, toDate);
+        return stream("compoff-usage", format,
+                out -> reportService.writeCompOffUsage(fromDate, toDate, granularity, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, Format format, StreamingResponseBody body) {
+        boolean csv = format == Format.CSV;
+        String fileName = name + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
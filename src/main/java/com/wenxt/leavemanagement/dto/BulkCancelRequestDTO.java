@@ -0,0 +1,30 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Either name the applications directly, or give employees plus a date window
+ * to cancel every PENDING/APPROVED leave of those employees overlapping it.
+ */
+public class BulkCancelRequestDTO {
+
+    private List<Long> applicationIds = new ArrayList<>();
+    private List<Long> employeeIds = new ArrayList<>();
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    // Getters and Setters
+    public List<Long> getApplicationIds() { return applicationIds; }
+    public void setApplicationIds(List<Long> applicationIds) { this.applicationIds = applicationIds; }
+
+    public List<Long> getEmployeeIds() { return employeeIds; }
+    public void setEmployeeIds(List<Long> employeeIds) { this.employeeIds = employeeIds; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+}
@@ -0,0 +1,16 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkCancelResultDTO {
+
+    // Leaves moved from PENDING or APPROVED to CANCELLED by this call
+    private List<Long> cancelledIds = new ArrayList<>();
+    // Named ids left alone: unknown, or already CANCELLED, REJECTED or under discussion
+    private List<Long> skippedIds = new ArrayList<>();
+
+    // Getters
+    public List<Long> getCancelledIds() { return cancelledIds; }
+    public List<Long> getSkippedIds() { return skippedIds; }
+}
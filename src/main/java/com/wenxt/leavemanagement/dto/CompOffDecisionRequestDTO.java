@@ -0,0 +1,30 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Either name the comp-off requests directly, or select every PENDING request of the
+ * given employees and/or worked-date window.
+ */
+public class CompOffDecisionRequestDTO {
+
+    private List<Long> ids = new ArrayList<>();
+    private List<Long> employeeIds = new ArrayList<>();
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public List<Long> getEmployeeIds() { return employeeIds; }
+    public void setEmployeeIds(List<Long> employeeIds) { this.employeeIds = employeeIds; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+}
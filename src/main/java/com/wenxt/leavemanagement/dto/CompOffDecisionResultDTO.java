@@ -0,0 +1,29 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompOffDecisionResultDTO {
+
+    // Requests moved out of PENDING by this call
+    private List<Long> updatedIds = new ArrayList<>();
+    private List<Skipped> skipped = new ArrayList<>();
+
+    public static class Skipped {
+        private Long id;
+        private String reason;
+
+        public Skipped(Long id, String reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public String getReason() { return reason; }
+    }
+
+    // Getters
+    public List<Long> getUpdatedIds() { return updatedIds; }
+    public List<Skipped> getSkipped() { return skipped; }
+}
@@ -0,0 +1,45 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Outbox payload of a comp-off event: the credit that was earned, or the days a leave drew
+ * from the employee's credits.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompOffEventDTO {
+
+    private Long compOffId;
+    private Long employeeId;
+    private LocalDate workedDate;
+    private BigDecimal days;
+    private LocalDate expiresOn;
+    private Long leaveApplicationId;
+
+    // Earned credit
+    public CompOffEventDTO(Long compOffId, Long employeeId, LocalDate workedDate, BigDecimal days, LocalDate expiresOn) {
+        this.compOffId = compOffId;
+        this.employeeId = employeeId;
+        this.workedDate = workedDate;
+        this.days = days;
+        this.expiresOn = expiresOn;
+    }
+
+    // Days used by a leave, possibly from several credits
+    public CompOffEventDTO(Long employeeId, BigDecimal days, Long leaveApplicationId) {
+        this.employeeId = employeeId;
+        this.days = days;
+        this.leaveApplicationId = leaveApplicationId;
+    }
+
+    // Getters
+    public Long getCompOffId() { return compOffId; }
+    public Long getEmployeeId() { return employeeId; }
+    public LocalDate getWorkedDate() { return workedDate; }
+    public BigDecimal getDays() { return days; }
+    public LocalDate getExpiresOn() { return expiresOn; }
+    public Long getLeaveApplicationId() { return leaveApplicationId; }
+}
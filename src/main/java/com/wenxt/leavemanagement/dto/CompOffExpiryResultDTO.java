@@ -0,0 +1,40 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Totals of one expiry run (or of the part a resumed run still had to do)
+public class CompOffExpiryResultDTO {
+
+    private LocalDate runDate;
+    private int employees;
+    private int carriedForwardCredits;
+    private int expiredCredits;
+    private BigDecimal expiredDays = BigDecimal.ZERO;
+
+    public CompOffExpiryResultDTO(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public void add(CompOffExpiryResultDTO other) {
+        employees += other.employees;
+        carriedForwardCredits += other.carriedForwardCredits;
+        expiredCredits += other.expiredCredits;
+        expiredDays = expiredDays.add(other.expiredDays);
+    }
+
+    // Getters and Setters
+    public LocalDate getRunDate() { return runDate; }
+
+    public int getEmployees() { return employees; }
+    public void setEmployees(int employees) { this.employees = employees; }
+
+    public int getCarriedForwardCredits() { return carriedForwardCredits; }
+    public void setCarriedForwardCredits(int carriedForwardCredits) { this.carriedForwardCredits = carriedForwardCredits; }
+
+    public int getExpiredCredits() { return expiredCredits; }
+    public void setExpiredCredits(int expiredCredits) { this.expiredCredits = expiredCredits; }
+
+    public BigDecimal getExpiredDays() { return expiredDays; }
+    public void setExpiredDays(BigDecimal expiredDays) { this.expiredDays = expiredDays; }
+}
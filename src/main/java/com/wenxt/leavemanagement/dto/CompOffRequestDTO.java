@@ -11,11 +11,16 @@ public class CompOffRequestDTO {
     private List<CompOffEntry> entries = new ArrayList<>();
 
     public static class CompOffEntry {
+        // Optional: overrides the request-level employeeId so one call can carry a whole team's roster
+        private Long employeeId;
         private LocalDate workedDate;
         private LocalDate plannedLeaveDate;
         private int days;
 
         // Getters and Setters
+        public Long getEmployeeId() { return employeeId; }
+        public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
         public LocalDate getWorkedDate() { return workedDate; }
         public void setWorkedDate(LocalDate workedDate) { this.workedDate = workedDate; }
 
@@ -0,0 +1,42 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * One report line: comp-off credits one employee earned for work in a month (or a whole year,
+ * when month is null), and how much of them has been drawn by leave so far.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompOffUsageRowDTO {
+
+    private Long employeeId;
+    private Integer year;
+    private Integer month;
+    private Long credits;
+    private BigDecimal earnedDays;
+    private BigDecimal usedDays;
+
+    public CompOffUsageRowDTO(Long employeeId, Integer year, Integer month,
+                              Long credits, BigDecimal earnedDays, BigDecimal usedDays) {
+        this.employeeId = employeeId;
+        this.year = year;
+        this.month = month;
+        this.credits = credits;
+        this.earnedDays = earnedDays;
+        this.usedDays = usedDays;
+    }
+
+    public CompOffUsageRowDTO(Long employeeId, Integer year, Long credits, BigDecimal earnedDays, BigDecimal usedDays) {
+        this(employeeId, year, null, credits, earnedDays, usedDays);
+    }
+
+    // Getters
+    public Long getEmployeeId() { return employeeId; }
+    public Integer getYear() { return year; }
+    public Integer getMonth() { return month; }
+    public Long getCredits() { return credits; }
+    public BigDecimal getEarnedDays() { return earnedDays; }
+    public BigDecimal getUsedDays() { return usedDays; }
+}
@@ -0,0 +1,39 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HolidayCalendarDTO {
+
+    private String name;
+    // Defaults to SATURDAY/SUNDAY when omitted
+    private List<String> weekendDays;
+    private List<HolidayEntry> holidays = new ArrayList<>();
+
+    public static class HolidayEntry {
+        private LocalDate date;
+        private boolean recurring;
+        private String description;
+
+        // Getters and Setters
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+
+        public boolean isRecurring() { return recurring; }
+        public void setRecurring(boolean recurring) { this.recurring = recurring; }
+
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<String> getWeekendDays() { return weekendDays; }
+    public void setWeekendDays(List<String> weekendDays) { this.weekendDays = weekendDays; }
+
+    public List<HolidayEntry> getHolidays() { return holidays; }
+    public void setHolidays(List<HolidayEntry> holidays) { this.holidays = holidays; }
+}
@@ -0,0 +1,87 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model of one leave application with its attachments. Built while the entity and its
+ * attachments are already loaded, so serialising it never touches the persistence context,
+ * and attachments carry no link back to the application.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LeaveApplicationDTO {
+
+    private Long applicationId;
+    private Long employeeId;
+    private LeaveType leaveType;
+    private HalfDayType halfDayType;
+    private LeaveStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal days;
+    private String reason;
+    private Boolean lossOfPay;
+    private List<Attachment> attachments = new ArrayList<>();
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Attachment {
+        private String fileUrl;
+        private String originalName;
+        private String contentType;
+        private Long sizeBytes;
+
+        public Attachment(String fileUrl, String originalName, String contentType, Long sizeBytes) {
+            this.fileUrl = fileUrl;
+            this.originalName = originalName;
+            this.contentType = contentType;
+            this.sizeBytes = sizeBytes;
+        }
+
+        // Getters
+        public String getFileUrl() { return fileUrl; }
+        public String getOriginalName() { return originalName; }
+        public String getContentType() { return contentType; }
+        public Long getSizeBytes() { return sizeBytes; }
+    }
+
+    // Getters and Setters
+    public Long getApplicationId() { return applicationId; }
+    public void setApplicationId(Long applicationId) { this.applicationId = applicationId; }
+
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public HalfDayType getHalfDayType() { return halfDayType; }
+    public void setHalfDayType(HalfDayType halfDayType) { this.halfDayType = halfDayType; }
+
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public BigDecimal getDays() { return days; }
+    public void setDays(BigDecimal days) { this.days = days; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Boolean getLossOfPay() { return lossOfPay; }
+    public void setLossOfPay(Boolean lossOfPay) { this.lossOfPay = lossOfPay; }
+
+    public List<Attachment> getAttachments() { return attachments; }
+    public void setAttachments(List<Attachment> attachments) { this.attachments = attachments; }
+}
@@ -0,0 +1,43 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk leave import. Only the first errors are listed in detail
+ * (leave.import.max-reported-errors); failedRows always has the full count.
+ */
+public class LeaveImportResultDTO {
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private List<RowError> errors = new ArrayList<>();
+
+    public static class RowError {
+        // 1-based line of the uploaded file
+        private long line;
+        private String message;
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        // Getters
+        public long getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+
+    // Getters and Setters
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getImportedRows() { return importedRows; }
+    public void setImportedRows(long importedRows) { this.importedRows = importedRows; }
+
+    public long getFailedRows() { return failedRows; }
+    public void setFailedRows(long failedRows) { this.failedRows = failedRows; }
+
+    public List<RowError> getErrors() { return errors; }
+}
@@ -0,0 +1,22 @@
+package com.wenxt.leavemanagement.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated leave listing. Pass nextCursor back as ?cursor=
+ * to get the following page; it is null on the last page.
+ */
+public class LeavePageDTO {
+
+    private List<LeaveSummaryDTO> items;
+    private String nextCursor;
+
+    public LeavePageDTO(List<LeaveSummaryDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<LeaveSummaryDTO> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
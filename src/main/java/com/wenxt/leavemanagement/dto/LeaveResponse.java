@@ -1,19 +1,21 @@
 package com.wenxt.leavemanagement.dto;
 
-import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
+// Either the saved application or a warning awaiting confirmation; the absent one is left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LeaveResponse {
-    private LeaveApplication leaveApplication;
+    private LeaveApplicationDTO leaveApplication;
     private String warningMessage;
 
-    public LeaveResponse(LeaveApplication leaveApplication, String warningMessage) {
+    public LeaveResponse(LeaveApplicationDTO leaveApplication, String warningMessage) {
         this.leaveApplication = leaveApplication;
         this.warningMessage = warningMessage;
     }
 
     // Getters and Setters
-    public LeaveApplication getLeaveApplication() { return leaveApplication; }
-    public void setLeaveApplication(LeaveApplication leaveApplication) { this.leaveApplication = leaveApplication; }
+    public LeaveApplicationDTO getLeaveApplication() { return leaveApplication; }
+    public void setLeaveApplication(LeaveApplicationDTO leaveApplication) { this.leaveApplication = leaveApplication; }
     public String getWarningMessage() { return warningMessage; }
     public void setWarningMessage(String warningMessage) { this.warningMessage = warningMessage; }
-}
\ No newline at end of file
+}
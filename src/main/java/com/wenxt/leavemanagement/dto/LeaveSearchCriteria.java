@@ -0,0 +1,35 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of the leave listing; null fields are not applied.
+ * fromDate/toDate select leaves overlapping that window.
+ */
+public class LeaveSearchCriteria {
+
+    private Long employeeId;
+    private LeaveStatus status;
+    private LeaveType leaveType;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    // Getters and Setters
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+
+    public LeaveStatus getStatus() { return status; }
+    public void setStatus(LeaveStatus status) { this.status = status; }
+
+    public LeaveType getLeaveType() { return leaveType; }
+    public void setLeaveType(LeaveType leaveType) { this.leaveType = leaveType; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+}
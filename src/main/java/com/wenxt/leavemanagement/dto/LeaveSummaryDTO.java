@@ -0,0 +1,46 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat projection of a leave application for list views; selected directly by the query,
+ * so no entity or attachment collection is loaded.
+ */
+public class LeaveSummaryDTO {
+
+    private Long applicationId;
+    private Long employeeId;
+    private LeaveType leaveType;
+    private HalfDayType halfDayType;
+    private LeaveStatus status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal days;
+
+    public LeaveSummaryDTO(Long applicationId, Long employeeId, LeaveType leaveType, HalfDayType halfDayType,
+                           LeaveStatus status, LocalDate startDate, LocalDate endDate, BigDecimal days) {
+        this.applicationId = applicationId;
+        this.employeeId = employeeId;
+        this.leaveType = leaveType;
+        this.halfDayType = halfDayType;
+        this.status = status;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.days = days;
+    }
+
+    // Getters
+    public Long getApplicationId() { return applicationId; }
+    public Long getEmployeeId() { return employeeId; }
+    public LeaveType getLeaveType() { return leaveType; }
+    public HalfDayType getHalfDayType() { return halfDayType; }
+    public LeaveStatus getStatus() { return status; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public BigDecimal getDays() { return days; }
+}
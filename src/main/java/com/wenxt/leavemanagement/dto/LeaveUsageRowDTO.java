@@ -0,0 +1,43 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.math.BigDecimal;
+
+/**
+ * One report line: approved leave of one employee and type in a month (or a whole year,
+ * when month is null). Aggregated by the database, never built from entities.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LeaveUsageRowDTO {
+
+    private Long employeeId;
+    private LeaveType leaveType;
+    private Integer year;
+    private Integer month;
+    private Long applications;
+    private BigDecimal days;
+
+    public LeaveUsageRowDTO(Long employeeId, LeaveType leaveType, Integer year, Integer month,
+                            Long applications, BigDecimal days) {
+        this.employeeId = employeeId;
+        this.leaveType = leaveType;
+        this.year = year;
+        this.month = month;
+        this.applications = applications;
+        this.days = days;
+    }
+
+    public LeaveUsageRowDTO(Long employeeId, LeaveType leaveType, Integer year, Long applications, BigDecimal days) {
+        this(employeeId, leaveType, year, null, applications, days);
+    }
+
+    // Getters
+    public Long getEmployeeId() { return employeeId; }
+    public LeaveType getLeaveType() { return leaveType; }
+    public Integer getYear() { return year; }
+    public Integer getMonth() { return month; }
+    public Long getApplications() { return applications; }
+    public BigDecimal getDays() { return days; }
+}
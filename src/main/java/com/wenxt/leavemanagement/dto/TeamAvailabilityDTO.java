@@ -0,0 +1,73 @@
+package com.wenxt.leavemanagement.dto;
+
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Who is out on each day of a range. Employees on a non-working day of their
+ * calendar are not counted as absent.
+ */
+public class TeamAvailabilityDTO {
+
+    private List<DayAvailability> days = new ArrayList<>();
+
+    public static class DayAvailability {
+        private LocalDate date;
+        // Distinct employees absent for all or part of the day
+        private int absentCount;
+        // Sum of absence, half days counting 0.5
+        private BigDecimal absentDays;
+        private List<Absence> absentees = new ArrayList<>();
+
+        public DayAvailability(LocalDate date) {
+            this.date = date;
+        }
+
+        // Getters and Setters
+        public LocalDate getDate() { return date; }
+
+        public int getAbsentCount() { return absentCount; }
+        public void setAbsentCount(int absentCount) { this.absentCount = absentCount; }
+
+        public BigDecimal getAbsentDays() { return absentDays; }
+        public void setAbsentDays(BigDecimal absentDays) { this.absentDays = absentDays; }
+
+        public List<Absence> getAbsentees() { return absentees; }
+    }
+
+    public static class Absence {
+        private Long employeeId;
+        private Long applicationId;
+        private LeaveType leaveType;
+        private LeaveStatus status;
+        private HalfDayType halfDayType;
+        private BigDecimal days;
+
+        public Absence(Long employeeId, Long applicationId, LeaveType leaveType, LeaveStatus status,
+                       HalfDayType halfDayType, BigDecimal days) {
+            this.employeeId = employeeId;
+            this.applicationId = applicationId;
+            this.leaveType = leaveType;
+            this.status = status;
+            this.halfDayType = halfDayType;
+            this.days = days;
+        }
+
+        // Getters
+        public Long getEmployeeId() { return employeeId; }
+        public Long getApplicationId() { return applicationId; }
+        public LeaveType getLeaveType() { return leaveType; }
+        public LeaveStatus getStatus() { return status; }
+        public HalfDayType getHalfDayType() { return halfDayType; }
+        public BigDecimal getDays() { return days; }
+    }
+
+    // Getters
+    public List<DayAvailability> getDays() { return days; }
+}
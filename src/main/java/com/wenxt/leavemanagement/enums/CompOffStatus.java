@@ -4,5 +4,7 @@ public enum CompOffStatus {
     PENDING,    // Requested, waiting for approval
     APPROVED,   // Approved by manager
     EARNED,     // Added to comp-off balance
-    USED        // Used in leave application
+    USED,       // Used in leave application
+    REJECTED,   // Denied by the approver
+    EXPIRED     // Validity ran out; remainingDays keeps what was forfeited
 }
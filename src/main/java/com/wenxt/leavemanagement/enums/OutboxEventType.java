@@ -0,0 +1,9 @@
+package com.wenxt.leavemanagement.enums;
+
+public enum OutboxEventType {
+    LEAVE_APPLIED,
+    LEAVE_APPROVED,
+    LEAVE_CANCELLED,
+    COMP_OFF_EARNED,
+    COMP_OFF_USED
+}
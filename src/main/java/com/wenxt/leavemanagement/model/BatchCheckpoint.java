@@ -0,0 +1,32 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one partition of a batch job. Updated in the same transaction as each chunk,
+ * so after a crash the job resumes after the last committed employee.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "batch_checkpoint")
+public class BatchCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String jobName;
+
+    // The business date the current run is for; a new date starts over from the first employee
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Column(nullable = false)
+    private Long lastEmployeeId = 0L;
+
+    private LocalDateTime completedAt;
+}
@@ -11,11 +11,19 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @Entity
-@Table(name = "comp_off")
+@Table(name = "comp_off",
+        uniqueConstraints = @UniqueConstraint(name = "uk_comp_off_employee_worked_date", columnNames = {"employee_id", "worked_date"}),
+        indexes = {
+                @Index(name = "idx_comp_off_open_lots", columnList = "employee_id, status, worked_date"),
+                // Expiry job: finds due credits without scanning every employee's history
+                @Index(name = "idx_comp_off_expiry", columnList = "status, expires_on, employee_id")
+        })
 public class CompOff {
 
+    // Pooled sequence (table-emulated on MySQL) so Hibernate can batch inserts; IDENTITY cannot
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comp_off_seq")
+    @SequenceGenerator(name = "comp_off_seq", sequenceName = "comp_off_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -48,9 +56,18 @@ public class CompOff {
     @Column(precision = 3, scale = 1)
     private BigDecimal days;
 
+    /**
+     * Part of the credit not yet consumed by leave. Deductions are recorded as
+     * CompOffConsumption rows and lower this value; the row itself is never split.
+     * The credit turns USED once it reaches zero.
+     */
+    @Column(name = "remaining_days", precision = 3, scale = 1)
+    private BigDecimal remainingDays;
+
     /**
      * When the employee applies via the Leave Application dropdown,
-     * this ID links this credit to that specific leave record.
+     * this ID links this credit to the leave record that consumed its last part.
+     * Every leave a credit contributed to is listed in comp_off_consumption.
      */
     // ✅ ADDED EXPLICIT COLUMN MAPPING
     @Column(name = "used_leave_application_id")
@@ -58,4 +75,15 @@ public class CompOff {
 
     // Optional: Reason for working on a holiday
     private String description;
+
+    /**
+     * Last day the credit can be drawn; after it the expiry job expires or carries it forward.
+     * Null on credits banked before expiry existed, which are due by workedDate instead.
+     */
+    @Column(name = "expires_on")
+    private LocalDate expiresOn;
+
+    // Set when the expiry job extended this credit once instead of expiring it
+    @Column(name = "carried_forward_on")
+    private LocalDate carriedForwardOn;
 }
\ No newline at end of file
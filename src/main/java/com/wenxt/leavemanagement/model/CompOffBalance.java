@@ -0,0 +1,32 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Materialized per-employee comp-off totals.
+ * earnedDays mirrors the unconsumed days of EARNED credits and usedDays the consumed days
+ * of all credits, so a balance check is a primary-key lookup instead of two aggregates over comp_off.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "comp_off_balance")
+public class CompOffBalance {
+
+    @Id
+    private Long employeeId;
+
+    @Column(nullable = false, precision = 10, scale = 1)
+    private BigDecimal earnedDays = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 10, scale = 1)
+    private BigDecimal usedDays = BigDecimal.ZERO;
+
+    public BigDecimal getAvailableDays() {
+        return earnedDays.subtract(usedDays);
+    }
+}
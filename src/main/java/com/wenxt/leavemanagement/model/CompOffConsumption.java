@@ -0,0 +1,38 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * One deduction from a comp-off credit (lot) on behalf of a leave application.
+ * A leave that spans several credits gets one row per credit it drew from.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "comp_off_consumption", indexes = {
+        @Index(name = "idx_consumption_leave", columnList = "leave_application_id"),
+        @Index(name = "idx_consumption_comp_off", columnList = "comp_off_id")
+})
+public class CompOffConsumption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comp_off_consumption_seq")
+    @SequenceGenerator(name = "comp_off_consumption_seq", sequenceName = "comp_off_consumption_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "comp_off_id", nullable = false)
+    private Long compOffId;
+
+    @Column(name = "leave_application_id", nullable = false)
+    private Long leaveApplicationId;
+
+    @Column(nullable = false)
+    private Long employeeId;
+
+    @Column(nullable = false, precision = 3, scale = 1)
+    private BigDecimal days;
+}
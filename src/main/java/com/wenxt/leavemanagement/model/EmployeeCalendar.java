@@ -0,0 +1,22 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Maps an employee to the holiday calendar of their office.
+ * Employees without a row fall back to the default calendar.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "employee_calendar")
+public class EmployeeCalendar {
+
+    @Id
+    private Long employeeId;
+
+    @Column(name = "calendar_code", nullable = false, length = 32)
+    private String calendarCode;
+}
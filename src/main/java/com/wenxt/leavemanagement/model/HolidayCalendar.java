@@ -0,0 +1,23 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "holiday_calendar")
+public class HolidayCalendar {
+
+    // Region/office key, e.g. "IN-BLR" or "US-NYC"
+    @Id
+    @Column(length = 32)
+    private String code;
+
+    private String name;
+
+    // Comma-separated DayOfWeek names, e.g. "SATURDAY,SUNDAY"
+    @Column(nullable = false)
+    private String weekendDays = "SATURDAY,SUNDAY";
+}
@@ -0,0 +1,33 @@
+package com.wenxt.leavemanagement.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "holiday_calendar_date",
+        indexes = @Index(name = "idx_holiday_calendar_code", columnList = "calendar_code"))
+public class HolidayCalendarDate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "calendar_code", nullable = false, length = 32)
+    private String calendarCode;
+
+    @Column(nullable = false)
+    private LocalDate holidayDate;
+
+    /**
+     * When true only the month and day of holidayDate matter and the
+     * holiday repeats every year (e.g. Independence Day).
+     */
+    private boolean recurring;
+
+    private String description;
+}
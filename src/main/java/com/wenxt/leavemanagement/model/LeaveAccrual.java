@@ -0,0 +1,55 @@
+package com.wenxt.leavemanagement.model;
+
+import com.wenxt.leavemanagement.enums.LeaveType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Accrual snapshot of one employee and leave type for one leave year.
+ * The snapshot only moves forward: months not yet accrued are added, and at a year boundary
+ * the unused balance (up to the carry-over cap) starts the next year, so a balance check never
+ * looks at past leave applications.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "leave_accrual", uniqueConstraints =
+        @UniqueConstraint(name = "uk_leave_accrual_employee_type", columnNames = {"employee_id", "leave_type"}))
+public class LeaveAccrual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leave_accrual_seq")
+    @SequenceGenerator(name = "leave_accrual_seq", sequenceName = "leave_accrual_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false, length = 16)
+    private LeaveType leaveType;
+
+    @Column(nullable = false)
+    private int accrualYear;
+
+    // Months of accrualYear already credited; a month is credited on its first day
+    @Column(nullable = false)
+    private int monthsAccrued;
+
+    @Column(nullable = false, precision = 10, scale = 1)
+    private BigDecimal carriedOverDays = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 10, scale = 1)
+    private BigDecimal accruedDays = BigDecimal.ZERO;
+
+    // Pending and approved leave booked while this year was current, net of cancellations
+    @Column(nullable = false, precision = 10, scale = 1)
+    private BigDecimal usedDays = BigDecimal.ZERO;
+
+    public BigDecimal getAvailableDays() {
+        return carriedOverDays.add(accruedDays).subtract(usedDays);
+    }
+}
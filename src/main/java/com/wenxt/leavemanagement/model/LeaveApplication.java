@@ -15,11 +15,20 @@ import java.util.List;
 
 @Getter @Setter
 @Entity
-@Table(name = "emp_leave_application")
+@Table(name = "emp_leave_application", indexes = {
+        // Each ends in (start_date, application_id): the listing's sort key, so seek pages are range scans
+        @Index(name = "idx_leave_employee_start", columnList = "employee_id, start_date, application_id"),
+        @Index(name = "idx_leave_employee_status_start", columnList = "employee_id, status, start_date, application_id"),
+        @Index(name = "idx_leave_status_start", columnList = "status, start_date, application_id"),
+        @Index(name = "idx_leave_type_start", columnList = "leave_type, start_date, application_id"),
+        // Overlap probe on apply
+        @Index(name = "idx_leave_employee_end", columnList = "employee_id, end_date")
+})
 public class LeaveApplication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emp_leave_application_seq")
+    @SequenceGenerator(name = "emp_leave_application_seq", sequenceName = "emp_leave_application_seq", allocationSize = 50)
     private Long applicationId;
 
     @NotNull
@@ -46,6 +55,14 @@ public class LeaveApplication {
     @Enumerated(EnumType.STRING)
     private LeaveStatus status;
 
+    // Booked past an insufficient balance: nothing was drawn, so nothing is given back on cancellation
+    private Boolean lossOfPay;
+
+    // Days charged to the accrual snapshot of chargedYear; null when nothing was charged
+    private BigDecimal chargedDays;
+
+    private Integer chargedYear;
+
     @OneToMany(mappedBy = "leaveApplication", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<LeaveAttachment> attachments = new ArrayList<>();
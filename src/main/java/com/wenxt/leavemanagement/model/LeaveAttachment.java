@@ -8,7 +8,8 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "leave_attachments")
+@Table(name = "leave_attachments",
+        indexes = @Index(name = "idx_leave_attachments_content_hash", columnList = "content_hash"))
 public class LeaveAttachment {
 
     @Id
@@ -17,8 +18,18 @@ public class LeaveAttachment {
 
     private String fileUrl;
 
+    // SHA-256 of the file; names the shared blob in the upload directory (null for legacy uploads)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private String originalName;
+
+    private String contentType;
+
+    private Long sizeBytes;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "application_id")
     @JsonBackReference
     private LeaveApplication leaveApplication;
-}
\ No newline at end of file
+}
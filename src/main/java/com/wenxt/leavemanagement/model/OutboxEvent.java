@@ -0,0 +1,57 @@
+package com.wenxt.leavemanagement.model;
+
+import com.wenxt.leavemanagement.enums.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event waiting to be delivered downstream.
+ * Written in the same transaction as the change it describes, so an event exists exactly when
+ * the change committed. The dispatcher delivers at least once; consumers deduplicate by id.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_pending", columnList = "delivered_at, next_attempt_at, id")
+})
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType eventType;
+
+    // Leave application or comp-off credit the event is about
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    private Long employeeId;
+
+    // JSON body handed to the sinks as is
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Null once the event gave up after the maximum attempts; it waits for a manual requeue
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -0,0 +1,18 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.model.BatchCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+
+    // Two nodes running the same partition take turns per chunk instead of repeating it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BatchCheckpoint b WHERE b.jobName = :jobName")
+    Optional<BatchCheckpoint> findForUpdate(@Param("jobName") String jobName);
+}
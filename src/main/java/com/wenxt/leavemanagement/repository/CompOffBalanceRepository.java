@@ -0,0 +1,32 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.model.CompOffBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface CompOffBalanceRepository extends JpaRepository<CompOffBalance, Long> {
+
+    // Applied in the database so concurrent writers never overwrite each other's deltas
+    @Modifying
+    @Query("UPDATE CompOffBalance b SET b.earnedDays = b.earnedDays + :earned, b.usedDays = b.usedDays + :used " +
+            "WHERE b.employeeId = :employeeId")
+    int adjust(@Param("employeeId") Long employeeId,
+               @Param("earned") BigDecimal earnedDelta,
+               @Param("used") BigDecimal usedDelta);
+
+    // Per-employee serialisation point: rows come back (and are locked) in key order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CompOffBalance b WHERE b.employeeId IN :employeeIds ORDER BY b.employeeId")
+    List<CompOffBalance> findAllForUpdate(@Param("employeeIds") Collection<Long> employeeIds);
+
+    @Query("SELECT b.employeeId FROM CompOffBalance b WHERE b.employeeId IN :employeeIds")
+    List<Long> findExistingIds(@Param("employeeIds") Collection<Long> employeeIds);
+}
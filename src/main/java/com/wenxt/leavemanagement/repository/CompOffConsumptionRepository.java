@@ -0,0 +1,35 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOffConsumption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CompOffConsumptionRepository extends JpaRepository<CompOffConsumption, Long> {
+
+    // [employeeId, sum(days)] drawn by the given leave applications
+    @Query("SELECT x.employeeId, SUM(x.days) FROM CompOffConsumption x WHERE x.leaveApplicationId IN :applicationIds GROUP BY x.employeeId")
+    List<Object[]> sumDaysByEmployee(@Param("applicationIds") Collection<Long> applicationIds);
+
+    // [employeeId, sum(days)] the given leaves drew from credits that are in the given state now
+    @Query("SELECT x.employeeId, SUM(x.days) FROM CompOffConsumption x, CompOff c WHERE c.id = x.compOffId " +
+            "AND c.status = :status AND x.leaveApplicationId IN :applicationIds GROUP BY x.employeeId")
+    List<Object[]> sumDaysByEmployeeFromCreditsIn(@Param("applicationIds") Collection<Long> applicationIds,
+                                                  @Param("status") CompOffStatus status);
+
+    @Query("SELECT DISTINCT x.compOffId FROM CompOffConsumption x WHERE x.compOffId IN :compOffIds")
+    List<Long> findConsumedCompOffIds(@Param("compOffIds") Collection<Long> compOffIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CompOffConsumption x SET x.compOffId = :keeperId WHERE x.compOffId IN :compOffIds")
+    int reassign(@Param("compOffIds") Collection<Long> compOffIds, @Param("keeperId") Long keeperId);
+
+    @Modifying
+    @Query("DELETE FROM CompOffConsumption x WHERE x.leaveApplicationId IN :applicationIds")
+    int deleteByLeaveApplicationIds(@Param("applicationIds") Collection<Long> applicationIds);
+}
@@ -1,26 +1,195 @@
 package com.wenxt.leavemanagement.repository;
 
+import com.wenxt.leavemanagement.dto.CompOffUsageRowDTO;
 import com.wenxt.leavemanagement.enums.CompOffStatus;
 import com.wenxt.leavemanagement.model.CompOff;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CompOffRepository extends JpaRepository<CompOff, Long> {
 
     boolean existsByEmployeeIdAndWorkedDate(Long employeeId, LocalDate workedDate);
 
+    // Candidate duplicates for a bulk request: [employeeId, workedDate]; callers match exact pairs
+    @Query("SELECT c.employeeId, c.workedDate FROM CompOff c WHERE c.employeeId IN :employeeIds AND c.workedDate IN :workedDates")
+    List<Object[]> findBankedDates(@Param("employeeIds") Collection<Long> employeeIds,
+                                   @Param("workedDates") Collection<LocalDate> workedDates);
+
     @Query("SELECT SUM(c.days) FROM CompOff c WHERE c.employeeId = :employeeId AND c.status = :status")
     BigDecimal sumDaysByEmployeeAndStatus(@Param("employeeId") Long employeeId, @Param("status") CompOffStatus status);
 
+    // Unconsumed days of open credits
+    @Query("SELECT SUM(c.remainingDays) FROM CompOff c WHERE c.employeeId = :employeeId AND c.status = :status")
+    BigDecimal sumRemainingDays(@Param("employeeId") Long employeeId, @Param("status") CompOffStatus status);
+
+    // Consumed days across credits in the given states
+    @Query("SELECT SUM(c.days - c.remainingDays) FROM CompOff c WHERE c.employeeId = :employeeId AND c.status IN :statuses")
+    BigDecimal sumConsumedDays(@Param("employeeId") Long employeeId, @Param("statuses") Collection<CompOffStatus> statuses);
+
+    // Per-employee totals for the nightly balance reconciliation: [employeeId, unconsumed EARNED days, consumed days]
+    @Query("SELECT c.employeeId, SUM(CASE WHEN c.status = :earned THEN c.remainingDays ELSE 0 END), SUM(c.days - c.remainingDays) " +
+            "FROM CompOff c WHERE c.status IN :statuses GROUP BY c.employeeId")
+    List<Object[]> sumBalancesGroupedByEmployee(@Param("earned") CompOffStatus earned,
+                                                @Param("statuses") Collection<CompOffStatus> statuses);
+
     List<CompOff> findByEmployeeIdAndStatusOrderByWorkedDateAsc(Long employeeId, CompOffStatus status);
 
+    // FIFO window of open credits; worked_date is unique per employee so it doubles as the keyset cursor
+    @Query("SELECT c FROM CompOff c WHERE c.employeeId = :employeeId AND c.status = :status " +
+            "AND c.remainingDays > 0 AND c.workedDate > :after ORDER BY c.workedDate ASC")
+    List<CompOff> findOpenLots(@Param("employeeId") Long employeeId,
+                               @Param("status") CompOffStatus status,
+                               @Param("after") LocalDate after,
+                               Pageable page);
+
+    // One-off backfill for credits created before remaining_days existed
+    @Modifying
+    @Query("UPDATE CompOff c SET c.remainingDays = CASE WHEN c.status = :used THEN 0 ELSE c.days END WHERE c.remainingDays IS NULL")
+    int backfillRemainingDays(@Param("used") CompOffStatus used);
+
     List<CompOff> findByStatus(CompOffStatus status);
 
     // 🔄 Find the exact Comp-Off records linked to a specific leave application for reversal
     List<CompOff> findByUsedLeaveApplicationId(Long applicationId);
-}
\ No newline at end of file
+
+    // Gives every credit back what the given leaves drew from it, in one statement.
+    // An expired credit stays EXPIRED: the days it gets back are forfeited along with the rest.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CompOff c SET c.remainingDays = c.remainingDays + " +
+            "(SELECT SUM(x.days) FROM CompOffConsumption x WHERE x.compOffId = c.id AND x.leaveApplicationId IN :applicationIds), " +
+            "c.status = CASE WHEN c.status = :expired THEN :expired ELSE :earned END, c.usedLeaveApplicationId = NULL " +
+            "WHERE c.id IN (SELECT x.compOffId FROM CompOffConsumption x WHERE x.leaveApplicationId IN :applicationIds)")
+    int restoreConsumed(@Param("applicationIds") Collection<Long> applicationIds,
+                        @Param("earned") CompOffStatus earned,
+                        @Param("expired") CompOffStatus expired);
+
+    // Legacy credits consumed before comp_off_consumption existed: [employeeId, sum(days)]
+    @Query("SELECT c.employeeId, SUM(c.days) FROM CompOff c WHERE c.usedLeaveApplicationId IN :applicationIds GROUP BY c.employeeId")
+    List<Object[]> sumDaysLinkedToLeaves(@Param("applicationIds") Collection<Long> applicationIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CompOff c SET c.status = :earned, c.remainingDays = c.days, c.usedLeaveApplicationId = NULL " +
+            "WHERE c.usedLeaveApplicationId IN :applicationIds")
+    int restoreLinked(@Param("applicationIds") Collection<Long> applicationIds, @Param("earned") CompOffStatus earned);
+
+    // Rows in the given states sharing an employee and worked date with another such row, grouped and oldest first
+    @Query("SELECT c FROM CompOff c WHERE c.status IN :statuses AND EXISTS " +
+            "(SELECT 1 FROM CompOff o WHERE o.employeeId = c.employeeId AND o.workedDate = c.workedDate " +
+            "AND o.status IN :statuses AND o.id <> c.id) ORDER BY c.employeeId, c.workedDate, c.id")
+    List<CompOff> findFragments(@Param("statuses") Collection<CompOffStatus> statuses);
+
+    @Query("SELECT DISTINCT c.employeeId FROM CompOff c WHERE c.id IN :ids")
+    List<Long> findEmployeeIdsByIds(@Param("ids") Collection<Long> ids);
+
+    // Bulk decisions: lock the requested rows so the status check and the update see the same state
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CompOff c WHERE c.id IN :ids")
+    List<CompOff> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM CompOff c WHERE c.status = :status AND c.employeeId IN :employeeIds " +
+            "AND c.workedDate BETWEEN :fromDate AND :toDate ORDER BY c.id")
+    List<Long> findIdsByEmployeesAndStatus(@Param("employeeIds") Collection<Long> employeeIds,
+                                           @Param("status") CompOffStatus status,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate);
+
+    @Query("SELECT c.id FROM CompOff c WHERE c.status = :status AND c.workedDate BETWEEN :fromDate AND :toDate ORDER BY c.id")
+    List<Long> findIdsByStatus(@Param("status") CompOffStatus status,
+                               @Param("fromDate") LocalDate fromDate,
+                               @Param("toDate") LocalDate toDate);
+
+    // PENDING-only transitions for a whole slice; approval also opens the credit for consumption
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CompOff c SET c.status = :earned, c.remainingDays = c.days WHERE c.id IN :ids AND c.status = :pending")
+    int approvePending(@Param("ids") Collection<Long> ids,
+                       @Param("pending") CompOffStatus pending,
+                       @Param("earned") CompOffStatus earned);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CompOff c SET c.status = :rejected WHERE c.id IN :ids AND c.status = :pending")
+    int rejectPending(@Param("ids") Collection<Long> ids,
+                      @Param("pending") CompOffStatus pending,
+                      @Param("rejected") CompOffStatus rejected);
+
+    // Expiry job: credits still open past their last day. Legacy rows without expiresOn are due by workedDate.
+    @Query("SELECT DISTINCT c.employeeId FROM CompOff c WHERE c.status = :earned AND c.remainingDays > 0 " +
+            "AND MOD(c.employeeId, :partitions) = :partition AND c.employeeId > :afterEmployeeId " +
+            "AND (c.expiresOn < :today OR (c.expiresOn IS NULL AND c.workedDate < :legacyCutoff)) " +
+            "ORDER BY c.employeeId")
+    List<Long> findEmployeesWithDueCredits(@Param("earned") CompOffStatus earned,
+                                           @Param("partition") int partition,
+                                           @Param("partitions") int partitions,
+                                           @Param("afterEmployeeId") Long afterEmployeeId,
+                                           @Param("today") LocalDate today,
+                                           @Param("legacyCutoff") LocalDate legacyCutoff,
+                                           Pageable page);
+
+    // One extension per credit: rows already carried forward are left to expire
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CompOff c SET c.expiresOn = :carriedUntil, c.carriedForwardOn = :today " +
+            "WHERE c.employeeId IN :employeeIds AND c.status = :earned AND c.remainingDays > 0 " +
+            "AND c.carriedForwardOn IS NULL " +
+            "AND (c.expiresOn < :today OR (c.expiresOn IS NULL AND c.workedDate < :legacyCutoff))")
+    int carryForwardDue(@Param("employeeIds") Collection<Long> employeeIds,
+                        @Param("earned") CompOffStatus earned,
+                        @Param("today") LocalDate today,
+                        @Param("legacyCutoff") LocalDate legacyCutoff,
+                        @Param("carriedUntil") LocalDate carriedUntil);
+
+    // [employeeId, open days about to be forfeited]
+    @Query("SELECT c.employeeId, SUM(c.remainingDays) FROM CompOff c " +
+            "WHERE c.employeeId IN :employeeIds AND c.status = :earned AND c.remainingDays > 0 " +
+            "AND (c.expiresOn < :today OR (c.expiresOn IS NULL AND c.workedDate < :legacyCutoff)) " +
+            "GROUP BY c.employeeId")
+    List<Object[]> sumDueDays(@Param("employeeIds") Collection<Long> employeeIds,
+                              @Param("earned") CompOffStatus earned,
+                              @Param("today") LocalDate today,
+                              @Param("legacyCutoff") LocalDate legacyCutoff);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CompOff c SET c.status = :expired " +
+            "WHERE c.employeeId IN :employeeIds AND c.status = :earned AND c.remainingDays > 0 " +
+            "AND (c.expiresOn < :today OR (c.expiresOn IS NULL AND c.workedDate < :legacyCutoff))")
+    int expireDue(@Param("employeeIds") Collection<Long> employeeIds,
+                  @Param("earned") CompOffStatus earned,
+                  @Param("expired") CompOffStatus expired,
+                  @Param("today") LocalDate today,
+                  @Param("legacyCutoff") LocalDate legacyCutoff);
+
+    // Usage reports by worked date: grouped in the database and read through a forward-only cursor
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.wenxt.leavemanagement.dto.CompOffUsageRowDTO(c.employeeId, " +
+            "year(c.workedDate), month(c.workedDate), COUNT(c), SUM(c.days), SUM(c.days - c.remainingDays)) FROM CompOff c " +
+            "WHERE c.status IN :statuses AND c.workedDate >= :fromDate AND c.workedDate <= :toDate " +
+            "GROUP BY c.employeeId, year(c.workedDate), month(c.workedDate) " +
+            "ORDER BY c.employeeId, year(c.workedDate), month(c.workedDate)")
+    Stream<CompOffUsageRowDTO> streamMonthlyUsage(@Param("statuses") Collection<CompOffStatus> statuses,
+                                                  @Param("fromDate") LocalDate fromDate,
+                                                  @Param("toDate") LocalDate toDate);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.wenxt.leavemanagement.dto.CompOffUsageRowDTO(c.employeeId, " +
+            "year(c.workedDate), COUNT(c), SUM(c.days), SUM(c.days - c.remainingDays)) FROM CompOff c " +
+            "WHERE c.status IN :statuses AND c.workedDate >= :fromDate AND c.workedDate <= :toDate " +
+            "GROUP BY c.employeeId, year(c.workedDate) " +
+            "ORDER BY c.employeeId, year(c.workedDate)")
+    Stream<CompOffUsageRowDTO> streamYearlyUsage(@Param("statuses") Collection<CompOffStatus> statuses,
+                                                 @Param("fromDate") LocalDate fromDate,
+                                                 @Param("toDate") LocalDate toDate);
+}
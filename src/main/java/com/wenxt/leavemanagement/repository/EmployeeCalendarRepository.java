@@ -0,0 +1,7 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.model.EmployeeCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EmployeeCalendarRepository extends JpaRepository<EmployeeCalendar, Long> {
+}
@@ -0,0 +1,14 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.model.HolidayCalendarDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface HolidayCalendarDateRepository extends JpaRepository<HolidayCalendarDate, Long> {
+
+    @Modifying
+    @Query("DELETE FROM HolidayCalendarDate d WHERE d.calendarCode = :calendarCode")
+    void deleteByCalendarCode(@Param("calendarCode") String calendarCode);
+}
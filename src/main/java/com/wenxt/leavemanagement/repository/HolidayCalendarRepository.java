@@ -0,0 +1,7 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.model.HolidayCalendar;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface HolidayCalendarRepository extends JpaRepository<HolidayCalendar, String> {
+}
@@ -0,0 +1,33 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.LeaveAccrual;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface LeaveAccrualRepository extends JpaRepository<LeaveAccrual, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM LeaveAccrual a WHERE a.employeeId = :employeeId AND a.leaveType = :leaveType")
+    Optional<LeaveAccrual> findForUpdate(@Param("employeeId") Long employeeId,
+                                         @Param("leaveType") LeaveType leaveType);
+
+    List<LeaveAccrual> findByEmployeeId(Long employeeId);
+
+    // Applied in the database so a refund never overwrites a concurrent booking; a closed year is left alone
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveAccrual a SET a.usedDays = a.usedDays + :days " +
+            "WHERE a.employeeId = :employeeId AND a.leaveType = :leaveType AND a.accrualYear = :year")
+    int adjustUsed(@Param("employeeId") Long employeeId,
+                   @Param("leaveType") LeaveType leaveType,
+                   @Param("year") int year,
+                   @Param("days") BigDecimal days);
+}
@@ -0,0 +1,17 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.dto.LeaveSearchCriteria;
+import com.wenxt.leavemanagement.dto.LeaveSummaryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LeaveApplicationQueryRepository {
+
+    /**
+     * Seek-paginated listing ordered by startDate DESC, applicationId DESC.
+     * Returns at most {@code limit} rows strictly after the (afterStartDate, afterId) key,
+     * or from the top when the key is null.
+     */
+    List<LeaveSummaryDTO> findPage(LeaveSearchCriteria criteria, LocalDate afterStartDate, Long afterId, int limit);
+}
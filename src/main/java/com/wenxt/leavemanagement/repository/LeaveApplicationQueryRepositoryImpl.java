@@ -0,0 +1,65 @@
+package com.wenxt.leavemanagement.repository;
+
+import com.wenxt.leavemanagement.dto.LeaveSearchCriteria;
+import com.wenxt.leavemanagement.dto.LeaveSummaryDTO;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds only the predicates that were asked for, so each filter combination gets a plan
+ * on the matching emp_leave_application index and the seek predicate becomes a range scan.
+ */
+class LeaveApplicationQueryRepositoryImpl implements LeaveApplicationQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<LeaveSummaryDTO> findPage(LeaveSearchCriteria criteria, LocalDate afterStartDate, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LeaveSummaryDTO> query = cb.createQuery(LeaveSummaryDTO.class);
+        Root<LeaveApplication> leave = query.from(LeaveApplication.class);
+
+        Path<LocalDate> startDate = leave.get("startDate");
+        Path<Long> applicationId = leave.get("applicationId");
+
+        List<Predicate> where = new ArrayList<>();
+        if (criteria.getEmployeeId() != null) {
+            where.add(cb.equal(leave.get("employeeId"), criteria.getEmployeeId()));
+        }
+        if (criteria.getStatus() != null) {
+            where.add(cb.equal(leave.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getLeaveType() != null) {
+            where.add(cb.equal(leave.get("leaveType"), criteria.getLeaveType()));
+        }
+        if (criteria.getToDate() != null) {
+            where.add(cb.lessThanOrEqualTo(startDate, criteria.getToDate()));
+        }
+        if (criteria.getFromDate() != null) {
+            where.add(cb.greaterThanOrEqualTo(leave.get("endDate"), criteria.getFromDate()));
+        }
+        if (afterStartDate != null && afterId != null) {
+            // (startDate, id) < (afterStartDate, afterId), spelled out for databases without row comparisons
+            where.add(cb.or(
+                    cb.lessThan(startDate, afterStartDate),
+                    cb.and(cb.equal(startDate, afterStartDate), cb.lessThan(applicationId, afterId))));
+        }
+
+        query.select(cb.construct(LeaveSummaryDTO.class,
+                        applicationId, leave.get("employeeId"), leave.get("leaveType"), leave.get("halfDayType"),
+                        leave.get("status"), startDate, leave.get("endDate"), leave.get("days")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(startDate), cb.desc(applicationId));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,7 +1,132 @@
 package com.wenxt.leavemanagement.repository;
 
+import com.wenxt.leavemanagement.dto.LeaveSummaryDTO;
+import com.wenxt.leavemanagement.dto.LeaveUsageRowDTO;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
 import com.wenxt.leavemanagement.model.LeaveApplication;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface LeaveApplicationRepository extends JpaRepository<LeaveApplication, Long> {
-}
\ No newline at end of file
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface LeaveApplicationRepository extends JpaRepository<LeaveApplication, Long>, LeaveApplicationQueryRepository {
+
+    // Fetch-joins the attachments, so reading them costs no extra statement
+    @EntityGraph(attributePaths = "attachments")
+    Optional<LeaveApplication> findWithAttachmentsByApplicationId(Long applicationId);
+
+    @Query("SELECT l.applicationId FROM LeaveApplication l WHERE l.applicationId IN :ids " +
+            "AND l.leaveType = :leaveType AND l.status IN :statuses")
+    List<Long> findIdsByTypeAndStatus(@Param("ids") Collection<Long> ids,
+                                      @Param("leaveType") LeaveType leaveType,
+                                      @Param("statuses") Collection<LeaveStatus> statuses);
+
+    // Seeds an accrual snapshot once: leave charged to the year, plus rows from before accruals that start in it
+    @Query("SELECT SUM(COALESCE(l.chargedDays, l.days)) FROM LeaveApplication l WHERE l.employeeId = :employeeId " +
+            "AND l.leaveType = :leaveType AND l.status IN :statuses AND (l.chargedYear = :year OR (l.chargedYear IS NULL " +
+            "AND l.startDate BETWEEN :fromDate AND :toDate AND (l.lossOfPay IS NULL OR l.lossOfPay = false)))")
+    BigDecimal sumChargedDays(@Param("employeeId") Long employeeId,
+                              @Param("leaveType") LeaveType leaveType,
+                              @Param("statuses") Collection<LeaveStatus> statuses,
+                              @Param("year") int year,
+                              @Param("fromDate") LocalDate fromDate,
+                              @Param("toDate") LocalDate toDate);
+
+    // Marks the pre-accrual rows a new snapshot counted as charged to it, so cancelling them refunds it
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveApplication l SET l.chargedDays = l.days, l.chargedYear = :year WHERE l.employeeId = :employeeId " +
+            "AND l.leaveType = :leaveType AND l.status IN :statuses AND l.chargedYear IS NULL " +
+            "AND l.startDate BETWEEN :fromDate AND :toDate AND (l.lossOfPay IS NULL OR l.lossOfPay = false)")
+    int markLegacyCharged(@Param("employeeId") Long employeeId,
+                          @Param("leaveType") LeaveType leaveType,
+                          @Param("statuses") Collection<LeaveStatus> statuses,
+                          @Param("year") int year,
+                          @Param("fromDate") LocalDate fromDate,
+                          @Param("toDate") LocalDate toDate);
+
+    // Rows of (employeeId, leaveType, days) charged to the given year, to refund before a bulk cancellation
+    @Query("SELECT l.employeeId, l.leaveType, SUM(l.chargedDays) FROM LeaveApplication l WHERE l.applicationId IN :ids " +
+            "AND l.chargedYear = :year AND l.status IN :statuses " +
+            "GROUP BY l.employeeId, l.leaveType ORDER BY l.employeeId, l.leaveType")
+    List<Object[]> sumChargedDaysByEmployeeAndType(@Param("ids") Collection<Long> ids,
+                                                   @Param("year") int year,
+                                                   @Param("statuses") Collection<LeaveStatus> statuses);
+
+    @Query("SELECT l.applicationId FROM LeaveApplication l WHERE l.employeeId IN :employeeIds " +
+            "AND l.status IN :statuses AND l.startDate <= :toDate AND l.endDate >= :fromDate")
+    List<Long> findIdsOverlapping(@Param("employeeIds") Collection<Long> employeeIds,
+                                  @Param("statuses") Collection<LeaveStatus> statuses,
+                                  @Param("fromDate") LocalDate fromDate,
+                                  @Param("toDate") LocalDate toDate);
+
+    // Seeks idx_leave_employee_end: only leaves ending on/after the new start are visited, however long the history
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveSummaryDTO(l.applicationId, l.employeeId, l.leaveType, " +
+            "l.halfDayType, l.status, l.startDate, l.endDate, l.days) FROM LeaveApplication l WHERE l.employeeId = :employeeId " +
+            "AND l.endDate >= :startDate AND l.startDate <= :endDate AND l.status IN :statuses")
+    List<LeaveSummaryDTO> findOverlapping(@Param("employeeId") Long employeeId,
+                                          @Param("statuses") Collection<LeaveStatus> statuses,
+                                          @Param("startDate") LocalDate startDate,
+                                          @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveSummaryDTO(l.applicationId, l.employeeId, l.leaveType, " +
+            "l.halfDayType, l.status, l.startDate, l.endDate, l.days) FROM LeaveApplication l " +
+            "WHERE l.applicationId IN :ids AND l.status IN :statuses")
+    List<LeaveSummaryDTO> findSummariesByIdsInStatus(@Param("ids") Collection<Long> ids,
+                                                     @Param("statuses") Collection<LeaveStatus> statuses);
+
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveSummaryDTO(l.applicationId, l.employeeId, l.leaveType, " +
+            "l.halfDayType, l.status, l.startDate, l.endDate, l.days) FROM LeaveApplication l " +
+            "WHERE l.status IN :statuses AND l.endDate >= :fromDate")
+    List<LeaveSummaryDTO> findSummariesEndingOnOrAfter(@Param("statuses") Collection<LeaveStatus> statuses,
+                                                       @Param("fromDate") LocalDate fromDate);
+
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveSummaryDTO(l.applicationId, l.employeeId, l.leaveType, " +
+            "l.halfDayType, l.status, l.startDate, l.endDate, l.days) FROM LeaveApplication l " +
+            "WHERE l.employeeId IN :employeeIds AND l.status IN :statuses " +
+            "AND l.startDate <= :toDate AND l.endDate >= :fromDate")
+    List<LeaveSummaryDTO> findSummariesOverlapping(@Param("employeeIds") Collection<Long> employeeIds,
+                                                   @Param("statuses") Collection<LeaveStatus> statuses,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate);
+
+    // Usage reports: grouped in the database and read through a forward-only cursor, so callers must close the stream
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveUsageRowDTO(l.employeeId, l.leaveType, " +
+            "year(l.startDate), month(l.startDate), COUNT(l), SUM(l.days)) FROM LeaveApplication l " +
+            "WHERE l.status IN :statuses AND l.startDate >= :fromDate AND l.startDate <= :toDate " +
+            "GROUP BY l.employeeId, l.leaveType, year(l.startDate), month(l.startDate) " +
+            "ORDER BY l.employeeId, year(l.startDate), month(l.startDate), l.leaveType")
+    Stream<LeaveUsageRowDTO> streamMonthlyUsage(@Param("statuses") Collection<LeaveStatus> statuses,
+                                                @Param("fromDate") LocalDate fromDate,
+                                                @Param("toDate") LocalDate toDate);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.wenxt.leavemanagement.dto.LeaveUsageRowDTO(l.employeeId, l.leaveType, " +
+            "year(l.startDate), COUNT(l), SUM(l.days)) FROM LeaveApplication l " +
+            "WHERE l.status IN :statuses AND l.startDate >= :fromDate AND l.startDate <= :toDate " +
+            "GROUP BY l.employeeId, l.leaveType, year(l.startDate) " +
+            "ORDER BY l.employeeId, year(l.startDate), l.leaveType")
+    Stream<LeaveUsageRowDTO> streamYearlyUsage(@Param("statuses") Collection<LeaveStatus> statuses,
+                                               @Param("fromDate") LocalDate fromDate,
+                                               @Param("toDate") LocalDate toDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveApplication l SET l.status = :cancelled WHERE l.applicationId IN :ids AND l.status IN :statuses")
+    int cancelAll(@Param("ids") Collection<Long> ids,
+                  @Param("statuses") Collection<LeaveStatus> statuses,
+                  @Param("cancelled") LeaveStatus cancelled);
+}
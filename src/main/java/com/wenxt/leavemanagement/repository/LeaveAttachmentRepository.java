@@ -2,6 +2,18 @@ package com.wenxt.leavemanagement.repository;
 
 import com.wenxt.leavemanagement.model.LeaveAttachment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface LeaveAttachmentRepository extends JpaRepository<LeaveAttachment, Long> {
+
+    Optional<LeaveAttachment> findFirstByContentHash(String contentHash);
+
+    // [contentHash, count] for the hashes that are still referenced; unreferenced hashes are absent
+    @Query("SELECT a.contentHash, COUNT(a) FROM LeaveAttachment a WHERE a.contentHash IN :hashes GROUP BY a.contentHash")
+    List<Object[]> countReferences(@Param("hashes") Collection<String> hashes);
 }
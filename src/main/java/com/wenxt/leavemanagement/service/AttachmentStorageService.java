@@ -0,0 +1,262 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.model.LeaveAttachment;
+import com.wenxt.leavemanagement.repository.LeaveAttachmentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for leave attachments.
+ * <p>
+ * Each upload is streamed through a fixed-size buffer to compute its SHA-256, and the
+ * bytes are written to {@code <upload-dir>/<sha256>} only if no blob with that hash exists
+ * yet, so re-submitting the same file costs neither disk nor write I/O. A blob is referenced
+ * by the LeaveAttachment rows carrying its hash; blobs without references (applications that
+ * were deleted or never committed) are removed by {@link #collectGarbage()} after a grace period.
+ */
+@Service
+public class AttachmentStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int GC_BATCH = 500;
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+    private static final String PART_SUFFIX = ".part";
+
+    private final LeaveAttachmentRepository attachmentRepository;
+    private final Path uploadPath;
+    private final long maxFileSize;
+    private final long maxRequestSize;
+    private final long gcGraceMillis;
+    private final Timer storedTimer;
+    private final Timer deduplicatedTimer;
+    private final DistributionSummary uploadSize;
+
+    public AttachmentStorageService(LeaveAttachmentRepository attachmentRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${file.upload-dir:uploads/leaves}") String uploadDir,
+                                    @Value("${file.upload.max-file-size:10485760}") long maxFileSize,
+                                    @Value("${file.upload.max-request-size:26214400}") long maxRequestSize,
+                                    @Value("${file.upload.gc-grace-ms:86400000}") long gcGraceMillis) {
+        this.attachmentRepository = attachmentRepository;
+        this.uploadPath = Paths.get(uploadDir);
+        this.maxFileSize = maxFileSize;
+        this.maxRequestSize = maxRequestSize;
+        this.gcGraceMillis = gcGraceMillis;
+        this.storedTimer = uploadTimer(meterRegistry, "stored");
+        this.deduplicatedTimer = uploadTimer(meterRegistry, "deduplicated");
+        this.uploadSize = DistributionSummary.builder("leave.attachments.upload.size")
+                .description("Size of each uploaded attachment")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer uploadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("leave.attachments.upload")
+                .description("Hashing and, for new content, writing one attachment")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public record StoredAttachment(String contentHash, String originalName, String contentType, long sizeBytes) {
+    }
+
+    /**
+     * Stores every non-empty file and describes them in order.
+     * Nothing is deleted on failure: blobs may already be shared with committed leaves,
+     * and unreferenced ones are left to the garbage collector.
+     */
+    public List<StoredAttachment> storeAll(MultipartFile[] files) throws IOException {
+        List<StoredAttachment> stored = new ArrayList<>();
+        if (files == null || files.length == 0) return stored;
+
+        Files.createDirectories(uploadPath);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long requestBudget = maxRequestSize;
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) continue;
+
+            long started = System.nanoTime();
+            MessageDigest digest = sha256();
+            long size = read(file, buffer, digest, requestBudget);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            requestBudget -= size;
+
+            Path blob = uploadPath.resolve(hash);
+            if (Files.exists(blob)) {
+                // Duplicate content: only refresh the timestamp so the GC grace period restarts
+                Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+                deduplicatedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            } else {
+                write(file, buffer, blob);
+                storedTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            uploadSize.record(size);
+            stored.add(new StoredAttachment(hash, safeName(file.getOriginalFilename()), file.getContentType(), size));
+        }
+        return stored;
+    }
+
+    public Path resolve(String contentHash) {
+        return uploadPath.resolve(contentHash);
+    }
+
+    public static boolean isContentHash(String name) {
+        return name != null && BLOB_NAME.matcher(name).matches();
+    }
+
+    // Any referencing row describes the blob; rows without one mean the blob is an orphan
+    public Optional<LeaveAttachment> findMetadata(String contentHash) {
+        return attachmentRepository.findFirstByContentHash(contentHash);
+    }
+
+    /**
+     * Deletes blobs no LeaveAttachment row references once they are older than the grace period,
+     * plus temp files left by interrupted writes. The grace period covers uploads whose
+     * leave application has not committed yet.
+     */
+    @Scheduled(fixedDelayString = "${file.upload.gc-interval-ms:3600000}",
+            initialDelayString = "${file.upload.gc-interval-ms:3600000}")
+    public int collectGarbage() throws IOException {
+        if (!Files.isDirectory(uploadPath)) return 0;
+
+        long cutoff = System.currentTimeMillis() - gcGraceMillis;
+        int deleted = 0;
+        List<Path> candidates = new ArrayList<>(GC_BATCH);
+        try (Stream<Path> paths = Files.list(uploadPath)) {
+            for (Iterator<Path> it = paths.iterator(); it.hasNext(); ) {
+                Path path = it.next();
+                String name = path.getFileName().toString();
+                if (lastModified(path) >= cutoff) continue;
+
+                if (name.endsWith(PART_SUFFIX)) {
+                    if (Files.deleteIfExists(path)) deleted++;
+                } else if (isContentHash(name)) {
+                    candidates.add(path);
+                    if (candidates.size() == GC_BATCH) {
+                        deleted += deleteUnreferenced(candidates, cutoff);
+                        candidates.clear();
+                    }
+                }
+            }
+        }
+        deleted += deleteUnreferenced(candidates, cutoff);
+        if (deleted > 0) log.info("Attachment GC removed {} unreferenced file(s)", deleted);
+        return deleted;
+    }
+
+    private int deleteUnreferenced(List<Path> candidates, long cutoff) throws IOException {
+        if (candidates.isEmpty()) return 0;
+
+        Map<String, Path> byHash = new HashMap<>();
+        for (Path path : candidates) {
+            byHash.put(path.getFileName().toString(), path);
+        }
+        // Reference counts come straight from the LeaveAttachment rows
+        for (Object[] row : attachmentRepository.countReferences(byHash.keySet())) {
+            byHash.remove((String) row[0]);
+        }
+
+        int deleted = 0;
+        for (Path path : byHash.values()) {
+            // Re-check: a concurrent upload may have just de-duplicated onto this blob
+            if (lastModified(path) < cutoff && Files.deleteIfExists(path)) deleted++;
+        }
+        return deleted;
+    }
+
+    // First pass: hash and measure without writing anything
+    private long read(MultipartFile file, ByteBuffer buffer, MessageDigest digest, long requestBudget) throws IOException {
+        long size = 0;
+        buffer.clear();
+        try (InputStream in = file.getInputStream(); ReadableByteChannel source = Channels.newChannel(in)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxFileSize) {
+                    throw new BadRequestException("Attachment " + file.getOriginalFilename()
+                            + " exceeds the limit of " + maxFileSize + " bytes per file.");
+                }
+                if (size > requestBudget) {
+                    throw new BadRequestException("Attachments exceed the limit of " + maxRequestSize + " bytes per request.");
+                }
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return size;
+    }
+
+    // Second pass for new content only: copy to a temp file, then publish it under its hash
+    private void write(MultipartFile file, ByteBuffer buffer, Path blob) throws IOException {
+        Path temp = uploadPath.resolve(blob.getFileName() + "." + UUID.randomUUID() + PART_SUFFIX);
+        buffer.clear();
+        try {
+            try (InputStream in = file.getInputStream();
+                 ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel sink = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        sink.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            // Same hash means same bytes, so losing a race against a concurrent writer is harmless
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private long lastModified(Path path) throws IOException {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (NoSuchFileException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Keeps only the last path segment of the client-supplied name
+    private String safeName(String originalName) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(originalName != null ? originalName : ""));
+        return (name == null || name.isBlank()) ? "attachment" : name.replace("\\", "_");
+    }
+}
@@ -0,0 +1,48 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.util.BoundedTtlCache;
+import com.wenxt.leavemanagement.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process cache of available comp-off days per employee.
+ * Entries are dropped after the transaction that changed the balance commits,
+ * so a read that follows a write always goes back to the ledger.
+ */
+@Component
+public class CompOffBalanceCache {
+
+    private final BoundedTtlCache<Long, BigDecimal> cache;
+
+    public CompOffBalanceCache(@Value("${compoff.balance.cache.max-size:10000}") int maxSize,
+                               @Value("${compoff.balance.cache.ttl-ms:60000}") long ttlMillis) {
+        this.cache = new BoundedTtlCache<>(maxSize, ttlMillis);
+    }
+
+    public BigDecimal get(Long employeeId, Function<Long, BigDecimal> loader) {
+        return cache.get(employeeId, loader);
+    }
+
+    public void evictAfterCommit(Long employeeId) {
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(employeeId));
+    }
+
+    public void evictAllAfterCommit() {
+        TransactionCallbacks.afterCommit(cache::invalidateAll);
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) cache.size());
+        stats.put("hits", cache.hitCount());
+        stats.put("misses", cache.missCount());
+        stats.put("evictions", cache.evictionCount());
+        return stats;
+    }
+}
@@ -0,0 +1,200 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOffBalance;
+import com.wenxt.leavemanagement.repository.CompOffBalanceRepository;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Keeps the comp_off_balance ledger in step with the comp_off rows.
+ * Every service that earns, consumes or restores credit days records the delta here
+ * in the same transaction, after it has changed the rows themselves.
+ */
+@Service
+public class CompOffBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompOffBalanceService.class);
+
+    // Credits that can have consumptions recorded against them; an expired credit keeps what it gave
+    private static final List<CompOffStatus> CONSUMABLE_STATES = List.of(CompOffStatus.EARNED, CompOffStatus.USED, CompOffStatus.EXPIRED);
+    private static final String INSERT_IF_ABSENT = "INSERT INTO comp_off_balance (employee_id, earned_days, used_days) " +
+            "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM comp_off_balance WHERE employee_id = ?)";
+
+    private final CompOffBalanceRepository balanceRepository;
+    private final CompOffRepository compOffRepository;
+    private final CompOffBalanceCache balanceCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CompOffBalanceService(CompOffBalanceRepository balanceRepository,
+                                 CompOffRepository compOffRepository,
+                                 CompOffBalanceCache balanceCache,
+                                 JdbcTemplate jdbcTemplate) {
+        this.balanceRepository = balanceRepository;
+        this.compOffRepository = compOffRepository;
+        this.balanceCache = balanceCache;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 1️⃣ READ BALANCE
+     * Single primary-key lookup; employees never touched since the ledger was introduced
+     * are answered from the raw rows once and get their ledger row on the next write.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getAvailable(Long employeeId) {
+        return balanceRepository.findById(employeeId)
+                .map(CompOffBalance::getAvailableDays)
+                .orElseGet(() -> fromRawRows(employeeId).getAvailableDays());
+    }
+
+    /**
+     * 2️⃣ RECORD CHANGE
+     * Applies the EARNED/USED deltas of a mutation. Must run after the comp_off rows were
+     * changed in the same transaction: a missing ledger row is seeded from those rows,
+     * which then already include the change. The cached balance is dropped on commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long employeeId, BigDecimal earnedDelta, BigDecimal usedDelta) {
+        if (balanceRepository.adjust(employeeId, earnedDelta, usedDelta) == 0) {
+            balanceRepository.save(fromRawRows(employeeId));
+        }
+        balanceCache.evictAfterCommit(employeeId);
+    }
+
+    /**
+     * 3️⃣ LOCK EMPLOYEES
+     * Row-locks the ledger rows of the given employees until the surrounding transaction ends,
+     * and returns them freshly read. Every path that checks or moves comp-off credit takes this
+     * lock first, so work for one employee is serialised while other employees never contend.
+     * Rows are locked in employeeId order to keep multi-employee lockers deadlock-free.
+     * Missing rows are inserted in the caller's transaction; an uncommitted insert holds the row
+     * like a lock does, so then every employee is seeded and locked in turn to keep the order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, CompOffBalance> lockAll(Collection<Long> employeeIds) {
+        Set<Long> ids = new TreeSet<>(employeeIds);
+        if (ids.isEmpty()) return Map.of();
+
+        Set<Long> missing = new TreeSet<>(ids);
+        balanceRepository.findExistingIds(ids).forEach(missing::remove);
+
+        Map<Long, CompOffBalance> locked = new LinkedHashMap<>();
+        if (missing.isEmpty()) {
+            for (CompOffBalance balance : balanceRepository.findAllForUpdate(ids)) {
+                locked.put(balance.getEmployeeId(), balance);
+            }
+            return locked;
+        }
+        for (Long employeeId : ids) {
+            if (missing.contains(employeeId)) {
+                insertIfAbsent(fromRawRows(employeeId));
+            }
+            for (CompOffBalance balance : balanceRepository.findAllForUpdate(List.of(employeeId))) {
+                locked.put(balance.getEmployeeId(), balance);
+            }
+        }
+        return locked;
+    }
+
+    // Plain JDBC: losing the race to a concurrent seed fails only this statement, not the caller's transaction
+    private void insertIfAbsent(CompOffBalance balance) {
+        try {
+            jdbcTemplate.update(INSERT_IF_ABSENT, balance.getEmployeeId(), balance.getEarnedDays(),
+                    balance.getUsedDays(), balance.getEmployeeId());
+        } catch (DuplicateKeyException e) {
+            // Another transaction seeded the same employee first; its row is what we lock next
+            log.debug("Comp-off balance row {} was seeded concurrently", balance.getEmployeeId());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CompOffBalance lock(Long employeeId) {
+        CompOffBalance balance = lockAll(List.of(employeeId)).get(employeeId);
+        if (balance == null) {
+            throw new IllegalStateException("Comp-off balance row for employee " + employeeId + " could not be created");
+        }
+        return balance;
+    }
+
+    /**
+     * 4️⃣ RECONCILE
+     * Nightly check of every ledger row against the aggregates of the raw rows.
+     * A grouped pass without locks finds the employees whose row looks drifted or missing;
+     * each of them is then locked like any writer does and compared again, so a delta that
+     * commits in between is never overwritten. Returns the number of rows corrected or seeded.
+     */
+    @Scheduled(cron = "${compoff.balance.reconcile-cron:0 30 2 * * *}")
+    @Transactional
+    public int reconcile() {
+        Map<Long, BigDecimal[]> aggregates = new HashMap<>();
+        for (Object[] row : compOffRepository.sumBalancesGroupedByEmployee(CompOffStatus.EARNED, CONSUMABLE_STATES)) {
+            aggregates.put((Long) row[0], new BigDecimal[]{toDays(row[1]), toDays(row[2])});
+        }
+
+        Set<Long> suspects = new TreeSet<>();
+        for (CompOffBalance actual : balanceRepository.findAll()) {
+            BigDecimal[] wanted = aggregates.remove(actual.getEmployeeId());
+            if (wanted == null) wanted = new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO};
+            if (actual.getEarnedDays().compareTo(wanted[0]) != 0 || actual.getUsedDays().compareTo(wanted[1]) != 0) {
+                suspects.add(actual.getEmployeeId());
+            }
+        }
+        // Employees with comp-off rows but no ledger row yet; locking seeds them from the rows
+        Set<Long> missing = aggregates.keySet();
+        suspects.addAll(missing);
+
+        int corrected = 0;
+        for (Long employeeId : suspects) {
+            CompOffBalance actual = lock(employeeId);
+            CompOffBalance wanted = fromRawRows(employeeId);
+            if (actual.getEarnedDays().compareTo(wanted.getEarnedDays()) != 0
+                    || actual.getUsedDays().compareTo(wanted.getUsedDays()) != 0) {
+                log.warn("Comp-off balance drift for employee {}: ledger earned={} used={}, rows earned={} used={}",
+                        employeeId, actual.getEarnedDays(), actual.getUsedDays(),
+                        wanted.getEarnedDays(), wanted.getUsedDays());
+                actual.setEarnedDays(wanted.getEarnedDays());
+                actual.setUsedDays(wanted.getUsedDays());
+                corrected++;
+            } else if (missing.contains(employeeId)) {
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            balanceCache.evictAllAfterCommit();
+        }
+        return corrected;
+    }
+
+    private CompOffBalance fromRawRows(Long employeeId) {
+        BigDecimal earned = compOffRepository.sumRemainingDays(employeeId, CompOffStatus.EARNED);
+        BigDecimal used = compOffRepository.sumConsumedDays(employeeId, CONSUMABLE_STATES);
+
+        CompOffBalance balance = emptyBalance(employeeId);
+        balance.setEarnedDays(earned != null ? earned : BigDecimal.ZERO);
+        balance.setUsedDays(used != null ? used : BigDecimal.ZERO);
+        return balance;
+    }
+
+    // SUM over a CASE expression may come back as any Number depending on the dialect
+    private BigDecimal toDays(Object sum) {
+        if (sum == null) return BigDecimal.ZERO;
+        return sum instanceof BigDecimal days ? days : new BigDecimal(sum.toString());
+    }
+
+    private CompOffBalance emptyBalance(Long employeeId) {
+        CompOffBalance balance = new CompOffBalance();
+        balance.setEmployeeId(employeeId);
+        return balance;
+    }
+}
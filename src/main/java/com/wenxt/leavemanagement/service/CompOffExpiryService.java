@@ -0,0 +1,181 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.CompOffExpiryResultDTO;
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.model.BatchCheckpoint;
+import com.wenxt.leavemanagement.repository.BatchCheckpointRepository;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly expiry of comp-off credits.
+ * <p>
+ * A credit is due once its expiresOn has passed (workedDate + validity-days for credits banked
+ * before expiry existed). With carry-forward-days set, a due credit is first extended once by
+ * that many days from the run date; otherwise, or when already carried forward, it turns EXPIRED
+ * and its open days leave the ledger.
+ * <p>
+ * Employees are split into {@code parallelism} partitions by id, each processed on its own thread
+ * in chunks of {@code chunk-size} employees. Every chunk is one short transaction: it locks the
+ * chunk's ledger rows (as useCompOff does), applies set-based updates, and advances the partition's
+ * checkpoint, so a crash resumes after the last committed chunk and online deductions wait at
+ * most one chunk.
+ */
+@Service
+public class CompOffExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompOffExpiryService.class);
+
+    private static final String JOB_NAME = "compoff-expiry";
+
+    private final CompOffRepository compOffRepository;
+    private final CompOffBalanceService balanceService;
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int validityDays;
+    private final int carryForwardDays;
+    private final int chunkSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CompOffExpiryService(CompOffRepository compOffRepository,
+                                CompOffBalanceService balanceService,
+                                BatchCheckpointRepository checkpointRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${compoff.expiry.validity-days:90}") int validityDays,
+                                @Value("${compoff.expiry.carry-forward-days:0}") int carryForwardDays,
+                                @Value("${compoff.expiry.chunk-size:200}") int chunkSize,
+                                @Value("${compoff.expiry.parallelism:4}") int parallelism) {
+        this.compOffRepository = compOffRepository;
+        this.balanceService = balanceService;
+        this.checkpointRepository = checkpointRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.validityDays = validityDays;
+        this.carryForwardDays = carryForwardDays;
+        this.chunkSize = chunkSize;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Scheduled(cron = "${compoff.expiry.cron:0 15 1 * * *}")
+    public void runScheduled() {
+        if (validityDays <= 0) return;
+        run(LocalDate.now());
+    }
+
+    /**
+     * Runs (or resumes) the expiry for the given business date and returns what this call changed.
+     * A partition already completed for that date is skipped.
+     */
+    public CompOffExpiryResultDTO run(LocalDate today) {
+        if (validityDays <= 0) {
+            throw new BadRequestException("Comp-off expiry is disabled (compoff.expiry.validity-days <= 0)");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Comp-off expiry is already running");
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<CompOffExpiryResultDTO>> partitions = new ArrayList<>(parallelism);
+            for (int partition = 0; partition < parallelism; partition++) {
+                int current = partition;
+                partitions.add(workers.submit(() -> runPartition(current, today)));
+            }
+            CompOffExpiryResultDTO total = new CompOffExpiryResultDTO(today);
+            for (Future<CompOffExpiryResultDTO> partition : partitions) {
+                total.add(partition.get());
+            }
+            log.info("Comp-off expiry for {}: {} employee(s), {} credit(s) expired ({} days), {} carried forward",
+                    today, total.getEmployees(), total.getExpiredCredits(), total.getExpiredDays(), total.getCarriedForwardCredits());
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Comp-off expiry interrupted", e);
+        } catch (ExecutionException e) {
+            // Committed chunks stay committed; the next run resumes from the checkpoints
+            throw new IllegalStateException("Comp-off expiry failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private CompOffExpiryResultDTO runPartition(int partition, LocalDate today) {
+        String jobName = JOB_NAME + "-" + partition + "-of-" + parallelism;
+        CompOffExpiryResultDTO result = new CompOffExpiryResultDTO(today);
+        chunkTransaction.executeWithoutResult(status -> startOrResume(jobName, today));
+        boolean more = true;
+        while (more) {
+            // One committed transaction per chunk, checkpoint included
+            more = Boolean.TRUE.equals(chunkTransaction.execute(status -> processChunk(jobName, partition, today, result)));
+        }
+        return result;
+    }
+
+    private void startOrResume(String jobName, LocalDate today) {
+        BatchCheckpoint checkpoint = checkpointRepository.findForUpdate(jobName).orElseGet(() -> {
+            BatchCheckpoint created = new BatchCheckpoint();
+            created.setJobName(jobName);
+            return created;
+        });
+        if (today.equals(checkpoint.getRunDate())) return;
+
+        checkpoint.setRunDate(today);
+        checkpoint.setLastEmployeeId(0L);
+        checkpoint.setCompletedAt(null);
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Returns true while there may be more employees in this partition
+    private boolean processChunk(String jobName, int partition, LocalDate today, CompOffExpiryResultDTO result) {
+        BatchCheckpoint checkpoint = checkpointRepository.findForUpdate(jobName).orElseThrow();
+        if (checkpoint.getCompletedAt() != null || !today.equals(checkpoint.getRunDate())) return false;
+
+        LocalDate legacyCutoff = today.minusDays(validityDays);
+        List<Long> employeeIds = compOffRepository.findEmployeesWithDueCredits(CompOffStatus.EARNED,
+                partition, parallelism, checkpoint.getLastEmployeeId(), today, legacyCutoff, PageRequest.of(0, chunkSize));
+        if (employeeIds.isEmpty()) {
+            checkpoint.setCompletedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+            return false;
+        }
+
+        // Same lock as useCompOff: deductions for these employees wait for this transaction only
+        balanceService.lockAll(employeeIds);
+        if (carryForwardDays > 0) {
+            result.setCarriedForwardCredits(result.getCarriedForwardCredits() + compOffRepository.carryForwardDue(
+                    employeeIds, CompOffStatus.EARNED, today, legacyCutoff, today.plusDays(carryForwardDays)));
+        }
+        List<Object[]> forfeited = compOffRepository.sumDueDays(employeeIds, CompOffStatus.EARNED, today, legacyCutoff);
+        result.setExpiredCredits(result.getExpiredCredits() + compOffRepository.expireDue(
+                employeeIds, CompOffStatus.EARNED, CompOffStatus.EXPIRED, today, legacyCutoff));
+        for (Object[] row : forfeited) {
+            BigDecimal days = (BigDecimal) row[1];
+            balanceService.record((Long) row[0], days.negate(), BigDecimal.ZERO);
+            result.setExpiredDays(result.getExpiredDays().add(days));
+        }
+        result.setEmployees(result.getEmployees() + employeeIds.size());
+
+        checkpoint.setLastEmployeeId(employeeIds.get(employeeIds.size() - 1));
+        checkpointRepository.save(checkpoint);
+        return true;
+    }
+}
@@ -1,143 +1,336 @@
 package com.wenxt.leavemanagement.service;
 
+import com.wenxt.leavemanagement.dto.CompOffDecisionRequestDTO;
+import com.wenxt.leavemanagement.dto.CompOffDecisionResultDTO;
+import com.wenxt.leavemanagement.dto.CompOffEventDTO;
 import com.wenxt.leavemanagement.dto.CompOffRequestDTO;
 import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.enums.OutboxEventType;
 import com.wenxt.leavemanagement.exception.BadRequestException;
 import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.model.CompOffConsumption;
+import com.wenxt.leavemanagement.repository.CompOffConsumptionRepository;
 import com.wenxt.leavemanagement.repository.CompOffRepository;
 import com.wenxt.leavemanagement.util.HolidayChecker;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
 
 @Service
 public class CompOffService {
 
+    // Earlier than any real worked date; starts the FIFO keyset scan
+    private static final LocalDate BEFORE_ANY_WORKED_DATE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate AFTER_ANY_WORKED_DATE = LocalDate.of(9999, 12, 31);
+    private static final int DECISION_SLICE = 500;
+
     private final CompOffRepository compOffRepository;
+    private final CompOffConsumptionRepository consumptionRepository;
+    private final CompOffBalanceService balanceService;
+    private final CompOffBalanceCache balanceCache;
     private final HolidayChecker holidayChecker;
+    private final OutboxService outbox;
+    private final int validityDays;
 
     public CompOffService(CompOffRepository compOffRepository,
-                          HolidayChecker holidayChecker) {
+                          CompOffConsumptionRepository consumptionRepository,
+                          CompOffBalanceService balanceService,
+                          CompOffBalanceCache balanceCache,
+                          HolidayChecker holidayChecker,
+                          OutboxService outbox,
+                          @Value("${compoff.expiry.validity-days:90}") int validityDays) {
         this.compOffRepository = compOffRepository;
+        this.consumptionRepository = consumptionRepository;
+        this.balanceService = balanceService;
+        this.balanceCache = balanceCache;
         this.holidayChecker = holidayChecker;
+        this.outbox = outbox;
+        this.validityDays = validityDays;
     }
 
     /**
      * 1️⃣ REQUEST BULK COMPOFF
      * Handles both Admin (Auto-Approved) and Employee (Pending) requests.
+     * Entries may name their own employeeId (e.g. a team's weekend roster); otherwise the
+     * request's employeeId applies. All duplicates are found with one query and the rows
+     * are written as JDBC batches.
      */
     @Transactional
     public void requestBulkCompOff(CompOffRequestDTO request, boolean isAdmin) {
-        if (request.getEmployeeId() == null) {
-            throw new BadRequestException("Employee ID is required");
-        }
+        List<CompOff> credits = new ArrayList<>(request.getEntries().size());
+        Set<Long> employeeIds = new HashSet<>();
+        Set<LocalDate> workedDates = new HashSet<>();
+        Set<String> requestedKeys = new HashSet<>();
 
         for (CompOffRequestDTO.CompOffEntry entry : request.getEntries()) {
+            Long employeeId = entry.getEmployeeId() != null ? entry.getEmployeeId() : request.getEmployeeId();
+            if (employeeId == null) {
+                throw new BadRequestException("Employee ID is required");
+            }
+            if (entry.getWorkedDate() == null) {
+                throw new BadRequestException("Worked date is required for employee " + employeeId);
+            }
+
             // Validate that workedDate is a non-working day
-            if (!holidayChecker.isNonWorkingDay(entry.getWorkedDate())) {
+            if (!holidayChecker.isNonWorkingDay(employeeId, entry.getWorkedDate())) {
                 throw new BadRequestException("Date " + entry.getWorkedDate() + " is not a holiday/weekend.");
             }
 
-            // Prevent duplicate banking for the same worked date
-            if (compOffRepository.existsByEmployeeIdAndWorkedDate(request.getEmployeeId(), entry.getWorkedDate())) {
+            // The same date listed twice in one request is a duplicate as well
+            if (!requestedKeys.add(employeeId + "|" + entry.getWorkedDate())) {
                 throw new BadRequestException("Comp-Off already banked for date: " + entry.getWorkedDate());
             }
 
             CompOff compOff = new CompOff();
-            compOff.setEmployeeId(request.getEmployeeId());
+            compOff.setEmployeeId(employeeId);
             compOff.setWorkedDate(entry.getWorkedDate());
             compOff.setPlannedLeaveDate(entry.getPlannedLeaveDate());
+            // Non-positive validity switches expiry off
+            compOff.setExpiresOn(validityDays > 0 ? entry.getWorkedDate().plusDays(validityDays) : null);
 
             // Safety check for days: default to 1 if 0 or null
             BigDecimal daysCount = (entry.getDays() <= 0) ? BigDecimal.ONE : BigDecimal.valueOf(entry.getDays());
             compOff.setDays(daysCount);
+            compOff.setRemainingDays(daysCount);
 
             // ✅ LOGIC FIX: Admin entries go straight to EARNED, Employees stay PENDING
             compOff.setStatus(isAdmin ? CompOffStatus.EARNED : CompOffStatus.PENDING);
 
-            compOffRepository.save(compOff);
+            credits.add(compOff);
+            employeeIds.add(employeeId);
+            workedDates.add(entry.getWorkedDate());
+        }
+
+        // Prevent duplicate banking for the same worked date: one set-based lookup for the whole request
+        for (Object[] banked : compOffRepository.findBankedDates(employeeIds, workedDates)) {
+            if (requestedKeys.contains(banked[0] + "|" + banked[1])) {
+                throw new BadRequestException("Comp-Off already banked for date: " + banked[1]);
+            }
+        }
+
+        compOffRepository.saveAll(credits);
+
+        if (isAdmin) {
+            Map<Long, BigDecimal> earnedByEmployee = new HashMap<>();
+            for (CompOff credit : credits) {
+                earnedByEmployee.merge(credit.getEmployeeId(), credit.getDays(), BigDecimal::add);
+                publishEarned(credit);
+            }
+            earnedByEmployee.forEach((employeeId, earned) -> balanceService.record(employeeId, earned, BigDecimal.ZERO));
         }
     }
 
     /**
      * 2️⃣ APPROVE COMPOFF
      * Manual gatekeeper for employee requests.
+     * Takes the same locks as decideBulk, ledger row first, so a single approval racing a bulk
+     * one sees its outcome and the days are credited once.
      */
     @Transactional
     public void approveCompOff(Long id) {
-        CompOff compOff = compOffRepository.findById(id)
-                .orElseThrow(() -> new BadRequestException("CompOff record not found"));
+        List<Long> employeeIds = compOffRepository.findEmployeeIdsByIds(List.of(id));
+        if (employeeIds.isEmpty()) {
+            throw new BadRequestException("CompOff record not found");
+        }
+        balanceService.lock(employeeIds.get(0));
 
-        if (compOff.getStatus() != CompOffStatus.PENDING) {
+        CompOff compOff = compOffRepository.findAllForUpdate(List.of(id)).get(0);
+        if (compOff.getStatus() != CompOffStatus.PENDING
+                || compOffRepository.approvePending(List.of(id), CompOffStatus.PENDING, CompOffStatus.EARNED) != 1) {
             throw new BadRequestException("Only PENDING requests can be approved.");
         }
+        balanceService.record(compOff.getEmployeeId(), compOff.getDays(), BigDecimal.ZERO);
+        publishEarned(compOff);
+    }
+
+    /**
+     * 2️⃣b BULK APPROVE / REJECT
+     * Same rule as approveCompOff, applied set-wise: only PENDING requests move. Each slice
+     * locks its rows, classifies them, then changes all PENDING ones with one guarded UPDATE.
+     * Approved credits are added to the ledger per employee; rejections do not touch it.
+     */
+    @Transactional
+    public CompOffDecisionResultDTO decideBulk(CompOffDecisionRequestDTO request, boolean approve) {
+        List<Long> ids;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        } else if ((request.getEmployeeIds() != null && !request.getEmployeeIds().isEmpty())
+                || request.getFromDate() != null || request.getToDate() != null) {
+            LocalDate from = request.getFromDate() != null ? request.getFromDate() : BEFORE_ANY_WORKED_DATE;
+            LocalDate to = request.getToDate() != null ? request.getToDate() : AFTER_ANY_WORKED_DATE;
+            ids = (request.getEmployeeIds() != null && !request.getEmployeeIds().isEmpty())
+                    ? compOffRepository.findIdsByEmployeesAndStatus(request.getEmployeeIds(), CompOffStatus.PENDING, from, to)
+                    : compOffRepository.findIdsByStatus(CompOffStatus.PENDING, from, to);
+        } else {
+            throw new BadRequestException("Provide ids, or employeeIds and/or fromDate/toDate.");
+        }
+
+        CompOffDecisionResultDTO result = new CompOffDecisionResultDTO();
+        Map<Long, BigDecimal> earnedByEmployee = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += DECISION_SLICE) {
+            List<Long> slice = ids.subList(from, Math.min(from + DECISION_SLICE, ids.size()));
+            // Ledger rows before credit rows, the order every other writer uses
+            balanceService.lockAll(compOffRepository.findEmployeeIdsByIds(slice));
+
+            Map<Long, CompOff> locked = new HashMap<>();
+            for (CompOff compOff : compOffRepository.findAllForUpdate(slice)) {
+                locked.put(compOff.getId(), compOff);
+            }
+            List<Long> pending = new ArrayList<>();
+            for (Long id : slice) {
+                CompOff compOff = locked.get(id);
+                if (compOff == null) {
+                    result.getSkipped().add(new CompOffDecisionResultDTO.Skipped(id, "CompOff record not found"));
+                } else if (compOff.getStatus() != CompOffStatus.PENDING) {
+                    result.getSkipped().add(new CompOffDecisionResultDTO.Skipped(id, "Status is " + compOff.getStatus()));
+                } else {
+                    pending.add(id);
+                    if (approve) earnedByEmployee.merge(compOff.getEmployeeId(), compOff.getDays(), BigDecimal::add);
+                }
+            }
+            if (pending.isEmpty()) continue;
+
+            // Rows are locked, so the guard matches every id classified as PENDING above
+            if (approve) {
+                compOffRepository.approvePending(pending, CompOffStatus.PENDING, CompOffStatus.EARNED);
+                for (Long id : pending) {
+                    publishEarned(locked.get(id));
+                }
+            } else {
+                compOffRepository.rejectPending(pending, CompOffStatus.PENDING, CompOffStatus.REJECTED);
+            }
+            result.getUpdatedIds().addAll(pending);
+        }
 
-        compOff.setStatus(CompOffStatus.EARNED);
-        compOffRepository.save(compOff);
+        earnedByEmployee.forEach((employeeId, earned) -> balanceService.record(employeeId, earned, BigDecimal.ZERO));
+        return result;
     }
 
     /**
      * 3️⃣ CHECK BALANCE (Earned - Used)
      * Note: PENDING records do not count toward available balance.
+     * Served from the comp_off_balance ledger rather than aggregating comp_off,
+     * with an in-process cache in front that every balance write invalidates.
      */
+    @Timed(value = "compoff.balance.read", histogram = true)
     public BigDecimal getAvailableCompOffDays(Long employeeId) {
         if (employeeId == null) return BigDecimal.ZERO;
-
-        BigDecimal earned = compOffRepository.sumDaysByEmployeeAndStatus(employeeId, CompOffStatus.EARNED);
-        BigDecimal used = compOffRepository.sumDaysByEmployeeAndStatus(employeeId, CompOffStatus.USED);
-
-        earned = (earned != null) ? earned : BigDecimal.ZERO;
-        used = (used != null) ? used : BigDecimal.ZERO;
-
-        return earned.subtract(used);
+        return balanceCache.get(employeeId, balanceService::getAvailable);
     }
 
     /**
      * 4️⃣ USE COMPOFF (FIFO Deduction)
-     * Deducts from EARNED records and handles splitting if leave is partial.
+     * Draws from the oldest open credits first. Each credit keeps its remaining amount and
+     * every draw is recorded as a CompOffConsumption row, so partial use never splits rows.
      */
+    @Timed(value = "compoff.use", histogram = true)
     @Transactional
     public void useCompOff(Long employeeId, BigDecimal daysToDeduct, Long leaveApplicationId) {
         BigDecimal remaining = daysToDeduct;
+        List<CompOffConsumption> consumptions = new ArrayList<>();
 
-        // FIFO: Always use the oldest earned credits first
-        List<CompOff> earnedList = compOffRepository.findByEmployeeIdAndStatusOrderByWorkedDateAsc(employeeId, CompOffStatus.EARNED);
+        // Credits are whole or half days, so this many of the oldest open credits normally cover the leave
+        int window = Math.max(1, daysToDeduct.multiply(BigDecimal.valueOf(2)).setScale(0, RoundingMode.CEILING).intValue());
+        LocalDate after = BEFORE_ANY_WORKED_DATE;
 
-        for (CompOff compOff : earnedList) {
-            if (remaining.compareTo(BigDecimal.ZERO) <= 0) break;
+        while (remaining.compareTo(BigDecimal.ZERO) > 0) {
+            // FIFO: Always use the oldest earned credits first
+            List<CompOff> lots = compOffRepository.findOpenLots(employeeId, CompOffStatus.EARNED, after, PageRequest.of(0, window));
+            if (lots.isEmpty()) break;
 
-            BigDecimal available = compOff.getDays();
+            for (CompOff lot : lots) {
+                if (remaining.compareTo(BigDecimal.ZERO) <= 0) break;
 
-            if (available.compareTo(remaining) <= 0) {
-                // Scenario A: Record is smaller than or equal to needed leave
-                compOff.setStatus(CompOffStatus.USED);
-                compOff.setUsedLeaveApplicationId(leaveApplicationId);
-                remaining = remaining.subtract(available);
-                compOffRepository.save(compOff);
-            } else {
-                // Scenario B: Split logic - Create a new EARNED record for the leftover balance
-                CompOff leftover = new CompOff();
-                leftover.setEmployeeId(employeeId);
-                leftover.setWorkedDate(compOff.getWorkedDate());
-                leftover.setPlannedLeaveDate(compOff.getPlannedLeaveDate());
-                leftover.setDays(available.subtract(remaining));
-                leftover.setStatus(CompOffStatus.EARNED);
-                compOffRepository.save(leftover);
-
-                // Mark current record as USED for the 'remaining' amount
-                compOff.setDays(remaining);
-                compOff.setStatus(CompOffStatus.USED);
-                compOff.setUsedLeaveApplicationId(leaveApplicationId);
-                compOffRepository.save(compOff);
-
-                remaining = BigDecimal.ZERO;
+                BigDecimal drawn = lot.getRemainingDays().min(remaining);
+                lot.setRemainingDays(lot.getRemainingDays().subtract(drawn));
+                if (lot.getRemainingDays().compareTo(BigDecimal.ZERO) == 0) {
+                    lot.setStatus(CompOffStatus.USED);
+                    lot.setUsedLeaveApplicationId(leaveApplicationId);
+                }
+                remaining = remaining.subtract(drawn);
+
+                CompOffConsumption consumption = new CompOffConsumption();
+                consumption.setCompOffId(lot.getId());
+                consumption.setLeaveApplicationId(leaveApplicationId);
+                consumption.setEmployeeId(employeeId);
+                consumption.setDays(drawn);
+                consumptions.add(consumption);
             }
+            after = lots.get(lots.size() - 1).getWorkedDate();
         }
 
         if (remaining.compareTo(BigDecimal.ZERO) > 0) {
             throw new BadRequestException("Insufficient balance to deduct " + daysToDeduct + " days.");
         }
+
+        consumptionRepository.saveAll(consumptions);
+        balanceService.record(employeeId, daysToDeduct.negate(), daysToDeduct);
+        outbox.publish(OutboxEventType.COMP_OFF_USED, leaveApplicationId, employeeId,
+                new CompOffEventDTO(employeeId, daysToDeduct, leaveApplicationId));
+    }
+
+    /**
+     * 5️⃣ REVERSE USAGE
+     * Gives back everything the given leave applications drew from comp-off credits.
+     * The statement count is fixed: credits are restored with one bulk update per model
+     * (consumption rows, and legacy used_leave_application_id links), whatever the number of credits.
+     * Credits that expired in the meantime stay expired, and what they get back stays forfeited.
+     */
+    @Transactional
+    public void reverseUsage(Collection<Long> leaveApplicationIds) {
+        if (leaveApplicationIds.isEmpty()) return;
+
+        Map<Long, BigDecimal> restoredByEmployee = new HashMap<>();
+        List<Object[]> consumed = consumptionRepository.sumDaysByEmployee(leaveApplicationIds);
+        Set<Long> employeeIds = new HashSet<>();
+        consumed.forEach(row -> employeeIds.add((Long) row[0]));
+        compOffRepository.sumDaysLinkedToLeaves(leaveApplicationIds).forEach(row -> employeeIds.add((Long) row[0]));
+        // Same lock as the apply path, taken before any credit row is touched
+        balanceService.lockAll(employeeIds);
+
+        for (Object[] row : consumed) {
+            restoredByEmployee.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        // Days handed back to expired credits leave usedDays but are not earned again
+        Map<Long, BigDecimal> forfeitedByEmployee = new HashMap<>();
+        for (Object[] row : consumptionRepository.sumDaysByEmployeeFromCreditsIn(leaveApplicationIds, CompOffStatus.EXPIRED)) {
+            forfeitedByEmployee.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        compOffRepository.restoreConsumed(leaveApplicationIds, CompOffStatus.EARNED, CompOffStatus.EXPIRED);
+        consumptionRepository.deleteByLeaveApplicationIds(leaveApplicationIds);
+
+        // Credits consumed before consumption rows existed are linked only through usedLeaveApplicationId
+        for (Object[] row : compOffRepository.sumDaysLinkedToLeaves(leaveApplicationIds)) {
+            restoredByEmployee.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        compOffRepository.restoreLinked(leaveApplicationIds, CompOffStatus.EARNED);
+
+        restoredByEmployee.forEach((employeeId, restored) -> {
+            BigDecimal earnedAgain = restored.subtract(forfeitedByEmployee.getOrDefault(employeeId, BigDecimal.ZERO));
+            balanceService.record(employeeId, earnedAgain, restored.negate());
+        });
+    }
+
+    /**
+     * Fills remaining_days for credits written before the consumption model existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRemainingDays() {
+        compOffRepository.backfillRemainingDays(CompOffStatus.USED);
+    }
+
+    private void publishEarned(CompOff credit) {
+        outbox.publish(OutboxEventType.COMP_OFF_EARNED, credit.getId(), credit.getEmployeeId(),
+                new CompOffEventDTO(credit.getId(), credit.getEmployeeId(), credit.getWorkedDate(), credit.getDays(), credit.getExpiresOn()));
     }
-}
\ No newline at end of file
+}
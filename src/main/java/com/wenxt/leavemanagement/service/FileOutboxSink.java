@@ -0,0 +1,63 @@
+package com.wenxt.leavemanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wenxt.leavemanagement.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Appends each batch to a local NDJSON file, one event per line, and forces it to disk before
+ * reporting success. The default sink; downstream jobs tail the file.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "file", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(@Value("${outbox.sink.file-path:./data/outbox-events.ndjson}") String filePath,
+                          ObjectMapper objectMapper) {
+        this.file = Paths.get(filePath).toAbsolutePath().normalize();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        // The batch is rendered first, so a failure never leaves half an event in the file
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(lines)) {
+            generator.setRootValueSeparator(null);
+            for (OutboxEvent event : events) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", event.getId());
+                generator.writeStringField("type", event.getEventType().name());
+                if (event.getAggregateId() != null) {
+                    generator.writeNumberField("aggregateId", event.getAggregateId());
+                }
+                generator.writeNumberField("employeeId", event.getEmployeeId());
+                generator.writeStringField("occurredAt", event.getOccurredAt().toString());
+                generator.writeFieldName("payload");
+                generator.writeRawValue(event.getPayload());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+
+        Files.createDirectories(file.getParent());
+        try (FileOutputStream out = new FileOutputStream(file.toFile(), true)) {
+            out.write(lines.toByteArray());
+            out.getChannel().force(false);
+        }
+    }
+}
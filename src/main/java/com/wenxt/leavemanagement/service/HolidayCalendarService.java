@@ -0,0 +1,185 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.HolidayCalendarDTO;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.model.EmployeeCalendar;
+import com.wenxt.leavemanagement.model.HolidayCalendar;
+import com.wenxt.leavemanagement.model.HolidayCalendarDate;
+import com.wenxt.leavemanagement.repository.EmployeeCalendarRepository;
+import com.wenxt.leavemanagement.repository.HolidayCalendarDateRepository;
+import com.wenxt.leavemanagement.repository.HolidayCalendarRepository;
+import com.wenxt.leavemanagement.util.HolidayCalendarSnapshot;
+import com.wenxt.leavemanagement.util.HolidayChecker;
+import com.wenxt.leavemanagement.util.TransactionCallbacks;
+import com.wenxt.leavemanagement.util.WorkingCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.*;
+
+@Service
+public class HolidayCalendarService {
+
+    private static final Logger log = LoggerFactory.getLogger(HolidayCalendarService.class);
+
+    private final HolidayCalendarRepository calendarRepository;
+    private final HolidayCalendarDateRepository dateRepository;
+    private final EmployeeCalendarRepository employeeCalendarRepository;
+    private final HolidayChecker holidayChecker;
+    private final TransactionTemplate reloadTransaction;
+
+    public HolidayCalendarService(HolidayCalendarRepository calendarRepository,
+                                  HolidayCalendarDateRepository dateRepository,
+                                  EmployeeCalendarRepository employeeCalendarRepository,
+                                  HolidayChecker holidayChecker,
+                                  PlatformTransactionManager transactionManager) {
+        this.calendarRepository = calendarRepository;
+        this.dateRepository = dateRepository;
+        this.employeeCalendarRepository = employeeCalendarRepository;
+        this.holidayChecker = holidayChecker;
+        // After-commit callbacks still see the finished transaction bound, so the reload needs its own
+        this.reloadTransaction = new TransactionTemplate(transactionManager);
+        this.reloadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 1️⃣ RELOAD
+     * Rebuilds the in-memory snapshot from the database and swaps it in atomically.
+     * Runs at startup and on a fixed delay so edits made by other nodes are picked up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${holiday.calendar.refresh-interval-ms:300000}",
+            initialDelayString = "${holiday.calendar.refresh-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reload() {
+        loadSnapshot();
+    }
+
+    // Called after an edit commits; this::reload would bypass the proxy and its read-only transaction
+    private void reloadAfterCommit() {
+        TransactionCallbacks.afterCommit(() -> reloadTransaction.executeWithoutResult(status -> loadSnapshot()));
+    }
+
+    private void loadSnapshot() {
+        Map<String, List<HolidayCalendarDate>> datesByCalendar = new HashMap<>();
+        for (HolidayCalendarDate date : dateRepository.findAll()) {
+            datesByCalendar.computeIfAbsent(date.getCalendarCode(), c -> new ArrayList<>()).add(date);
+        }
+
+        Map<String, WorkingCalendar> calendars = new HashMap<>();
+        for (HolidayCalendar calendar : calendarRepository.findAll()) {
+            calendars.put(calendar.getCode(), toWorkingCalendar(calendar,
+                    datesByCalendar.getOrDefault(calendar.getCode(), List.of())));
+        }
+        // Until the default calendar is maintained in the database, keep the built-in rules
+        WorkingCalendar defaultCalendar = calendars.computeIfAbsent(HolidayChecker.DEFAULT_CALENDAR, WorkingCalendar::builtIn);
+
+        Map<Long, WorkingCalendar> employees = new HashMap<>();
+        for (EmployeeCalendar assignment : employeeCalendarRepository.findAll()) {
+            WorkingCalendar calendar = calendars.get(assignment.getCalendarCode());
+            if (calendar == null) {
+                log.warn("Employee {} is mapped to unknown holiday calendar {}; using {}",
+                        assignment.getEmployeeId(), assignment.getCalendarCode(), HolidayChecker.DEFAULT_CALENDAR);
+                continue;
+            }
+            employees.put(assignment.getEmployeeId(), calendar);
+        }
+
+        holidayChecker.replaceSnapshot(new HolidayCalendarSnapshot(defaultCalendar, employees));
+    }
+
+    /**
+     * 2️⃣ SAVE CALENDAR
+     * Replaces the weekend rule and the full holiday list of one calendar.
+     */
+    @Transactional
+    public void saveCalendar(String code, HolidayCalendarDTO request) {
+        if (code == null || code.isBlank()) {
+            throw new BadRequestException("Calendar code is required");
+        }
+
+        HolidayCalendar calendar = calendarRepository.findById(code).orElseGet(HolidayCalendar::new);
+        calendar.setCode(code);
+        calendar.setName(request.getName());
+        if (request.getWeekendDays() != null) {
+            calendar.setWeekendDays(String.join(",", parseWeekendDays(request.getWeekendDays())
+                    .stream().map(DayOfWeek::name).toList()));
+        }
+        calendarRepository.save(calendar);
+
+        dateRepository.deleteByCalendarCode(code);
+        List<HolidayCalendarDate> dates = new ArrayList<>();
+        // "holidays": null means none, like an omitted field
+        List<HolidayCalendarDTO.HolidayEntry> holidays = request.getHolidays() != null ? request.getHolidays() : List.of();
+        for (HolidayCalendarDTO.HolidayEntry entry : holidays) {
+            if (entry == null || entry.getDate() == null) {
+                throw new BadRequestException("Every holiday entry needs a date");
+            }
+            HolidayCalendarDate date = new HolidayCalendarDate();
+            date.setCalendarCode(code);
+            date.setHolidayDate(entry.getDate());
+            date.setRecurring(entry.isRecurring());
+            date.setDescription(entry.getDescription());
+            dates.add(date);
+        }
+        dateRepository.saveAll(dates);
+
+        reloadAfterCommit();
+    }
+
+    /**
+     * 3️⃣ ASSIGN EMPLOYEE
+     * Points an employee at the calendar of their region/office.
+     */
+    @Transactional
+    public void assignEmployee(Long employeeId, String code) {
+        if (!calendarRepository.existsById(code)) {
+            throw new BadRequestException("Holiday calendar not found: " + code);
+        }
+        EmployeeCalendar assignment = new EmployeeCalendar();
+        assignment.setEmployeeId(employeeId);
+        assignment.setCalendarCode(code);
+        employeeCalendarRepository.save(assignment);
+
+        reloadAfterCommit();
+    }
+
+    private WorkingCalendar toWorkingCalendar(HolidayCalendar calendar, List<HolidayCalendarDate> dates) {
+        List<MonthDay> recurring = new ArrayList<>();
+        List<LocalDate> fixed = new ArrayList<>();
+        for (HolidayCalendarDate date : dates) {
+            if (date.isRecurring()) {
+                recurring.add(MonthDay.from(date.getHolidayDate()));
+            } else {
+                fixed.add(date.getHolidayDate());
+            }
+        }
+        return new WorkingCalendar(calendar.getCode(),
+                parseWeekendDays(Arrays.asList(calendar.getWeekendDays().split(","))), recurring, fixed);
+    }
+
+    private Set<DayOfWeek> parseWeekendDays(List<String> names) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String name : names) {
+            if (name.isBlank()) continue;
+            try {
+                days.add(DayOfWeek.valueOf(name.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid weekend day: " + name);
+            }
+        }
+        return days;
+    }
+}
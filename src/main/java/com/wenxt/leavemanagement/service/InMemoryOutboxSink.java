@@ -0,0 +1,42 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.model.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps delivered events in memory, for tests and local runs. Deliveries can be made to fail
+ * on purpose to exercise the dispatcher's retries.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> delivered = new ArrayList<>();
+    private int failuresLeft;
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) {
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new IllegalStateException("Simulated sink failure");
+        }
+        delivered.addAll(events);
+    }
+
+    public synchronized List<OutboxEvent> events() {
+        return new ArrayList<>(delivered);
+    }
+
+    public synchronized void failNext(int deliveries) {
+        this.failuresLeft = deliveries;
+    }
+
+    public synchronized void clear() {
+        delivered.clear();
+        failuresLeft = 0;
+    }
+}
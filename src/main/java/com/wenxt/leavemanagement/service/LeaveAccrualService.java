@@ -0,0 +1,186 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.LeaveAccrual;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.repository.LeaveAccrualRepository;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entitlement balances for CASUAL, VACATION and MEDICAL leave.
+ * Each type has an annual entitlement, credited in twelve monthly parts, and a cap on what
+ * carries over into the next year. Every employee has one snapshot per type (leave_accrual) that
+ * is brought forward only by the months and years passed since it was last touched, so a
+ * balance check is one locked primary-key read whatever the leave history.
+ * <p>
+ * Leave is charged to the year that is current when it is booked, and the leave keeps the days
+ * and the year it was charged. A cancellation gives exactly those days back while that year is
+ * still current; once it has closed the days stay spent. Leave taken as Loss of Pay is never charged.
+ */
+@Service
+public class LeaveAccrualService {
+
+    // Leave states that draw on an entitlement
+    private static final List<LeaveStatus> ACTIVE_STATUSES = List.of(LeaveStatus.APPROVED, LeaveStatus.PENDING);
+    private static final BigDecimal MONTHS_PER_YEAR = BigDecimal.valueOf(12);
+
+    private record Policy(BigDecimal annualDays, BigDecimal carryOverCap) {
+    }
+
+    private final LeaveAccrualRepository accrualRepository;
+    private final LeaveApplicationRepository leaveRepository;
+    private final Map<LeaveType, Policy> policies = new EnumMap<>(LeaveType.class);
+
+    public LeaveAccrualService(LeaveAccrualRepository accrualRepository,
+                               LeaveApplicationRepository leaveRepository,
+                               @Value("${leave.accrual.casual.annual-days:12}") BigDecimal casualDays,
+                               @Value("${leave.accrual.casual.carry-over-cap:0}") BigDecimal casualCap,
+                               @Value("${leave.accrual.vacation.annual-days:18}") BigDecimal vacationDays,
+                               @Value("${leave.accrual.vacation.carry-over-cap:10}") BigDecimal vacationCap,
+                               @Value("${leave.accrual.medical.annual-days:12}") BigDecimal medicalDays,
+                               @Value("${leave.accrual.medical.carry-over-cap:0}") BigDecimal medicalCap) {
+        this.accrualRepository = accrualRepository;
+        this.leaveRepository = leaveRepository;
+        register(LeaveType.CASUAL, casualDays, casualCap);
+        register(LeaveType.VACATION, vacationDays, vacationCap);
+        register(LeaveType.MEDICAL, medicalDays, medicalCap);
+    }
+
+    // An entitlement of zero or less leaves the type unlimited, as before accruals existed
+    private void register(LeaveType type, BigDecimal annualDays, BigDecimal carryOverCap) {
+        if (annualDays.signum() > 0) {
+            policies.put(type, new Policy(annualDays, carryOverCap.max(BigDecimal.ZERO)));
+        }
+    }
+
+    public boolean isAccrued(LeaveType type) {
+        return type != null && policies.containsKey(type);
+    }
+
+    /**
+     * 1️⃣ CURRENT SNAPSHOT
+     * Locks the employee's snapshot for the type, brings it forward to the given date and returns it
+     * managed, so a booking is written with it. A missing snapshot is seeded once from the leave booked
+     * in the current year, and the rows from before accruals it counted are marked as charged to it.
+     * Callers hold the employee's comp-off ledger lock, which serialises the seeding.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LeaveAccrual current(Long employeeId, LeaveType type, LocalDate today) {
+        LeaveAccrual accrual = accrualRepository.findForUpdate(employeeId, type).orElseGet(() -> {
+            LeaveAccrual seeded = accrualRepository.save(seed(employeeId, type, today));
+            leaveRepository.markLegacyCharged(employeeId, type, ACTIVE_STATUSES, today.getYear(),
+                    today.withDayOfYear(1), today.withDayOfYear(today.lengthOfYear()));
+            return seeded;
+        });
+        advance(accrual, policies.get(type), today);
+        return accrual;
+    }
+
+    /**
+     * 2️⃣ BOOK
+     * Charges a leave to a snapshot returned by {@link #current} and records on the leave what it was charged.
+     */
+    public void book(LeaveAccrual accrual, LeaveApplication leave, BigDecimal days) {
+        accrual.setUsedDays(accrual.getUsedDays().add(days));
+        leave.setChargedDays(days);
+        leave.setChargedYear(accrual.getAccrualYear());
+    }
+
+    /**
+     * 3️⃣ REFUND
+     * Gives back days charged to chargedYear, applied in the database, but only while that year is
+     * current. Without a snapshot there is nothing to correct: it will be seeded from rows that
+     * already show the cancellation.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void refund(Long employeeId, LeaveType type, Integer chargedYear, BigDecimal days, LocalDate today) {
+        if (!isAccrued(type) || chargedYear == null || chargedYear != today.getYear()
+                || days == null || days.signum() == 0) return;
+        accrualRepository.adjustUsed(employeeId, type, chargedYear, days.negate());
+    }
+
+    /**
+     * 4️⃣ READ BALANCES
+     * Available days per accrued type as of the given date. Snapshots are brought forward on copies,
+     * so reading never writes.
+     */
+    @Transactional(readOnly = true)
+    public Map<LeaveType, BigDecimal> getBalances(Long employeeId, LocalDate today) {
+        Map<LeaveType, LeaveAccrual> snapshots = new EnumMap<>(LeaveType.class);
+        for (LeaveAccrual accrual : accrualRepository.findByEmployeeId(employeeId)) {
+            snapshots.put(accrual.getLeaveType(), accrual);
+        }
+
+        Map<LeaveType, BigDecimal> balances = new EnumMap<>(LeaveType.class);
+        for (Map.Entry<LeaveType, Policy> entry : policies.entrySet()) {
+            LeaveAccrual stored = snapshots.get(entry.getKey());
+            LeaveAccrual accrual = stored != null ? copyOf(stored) : seed(employeeId, entry.getKey(), today);
+            advance(accrual, entry.getValue(), today);
+            balances.put(entry.getKey(), accrual.getAvailableDays());
+        }
+        return balances;
+    }
+
+    // O(years since the last touch): whole missed years are closed one by one, then this year's months are added
+    private void advance(LeaveAccrual accrual, Policy policy, LocalDate today) {
+        while (accrual.getAccrualYear() < today.getYear()) {
+            accrueTo(accrual, policy, 12);
+            BigDecimal carried = accrual.getAvailableDays().max(BigDecimal.ZERO).min(policy.carryOverCap());
+            accrual.setAccrualYear(accrual.getAccrualYear() + 1);
+            accrual.setMonthsAccrued(0);
+            accrual.setCarriedOverDays(carried);
+            accrual.setAccruedDays(BigDecimal.ZERO);
+            accrual.setUsedDays(BigDecimal.ZERO);
+        }
+        if (accrual.getAccrualYear() == today.getYear()) {
+            accrueTo(accrual, policy, today.getMonthValue());
+        }
+    }
+
+    // Credits the difference of the cumulative amounts, so rounding never drifts over the year
+    private void accrueTo(LeaveAccrual accrual, Policy policy, int months) {
+        if (months <= accrual.getMonthsAccrued()) return;
+        BigDecimal delta = accrued(policy, months).subtract(accrued(policy, accrual.getMonthsAccrued()));
+        accrual.setAccruedDays(accrual.getAccruedDays().add(delta));
+        accrual.setMonthsAccrued(months);
+    }
+
+    private BigDecimal accrued(Policy policy, int months) {
+        return policy.annualDays().multiply(BigDecimal.valueOf(months)).divide(MONTHS_PER_YEAR, 1, RoundingMode.DOWN);
+    }
+
+    private LeaveAccrual seed(Long employeeId, LeaveType type, LocalDate today) {
+        LeaveAccrual accrual = new LeaveAccrual();
+        accrual.setEmployeeId(employeeId);
+        accrual.setLeaveType(type);
+        accrual.setAccrualYear(today.getYear());
+        BigDecimal used = leaveRepository.sumChargedDays(employeeId, type, ACTIVE_STATUSES, today.getYear(),
+                today.withDayOfYear(1), today.withDayOfYear(today.lengthOfYear()));
+        accrual.setUsedDays(used != null ? used : BigDecimal.ZERO);
+        return accrual;
+    }
+
+    private LeaveAccrual copyOf(LeaveAccrual stored) {
+        LeaveAccrual copy = new LeaveAccrual();
+        copy.setEmployeeId(stored.getEmployeeId());
+        copy.setLeaveType(stored.getLeaveType());
+        copy.setAccrualYear(stored.getAccrualYear());
+        copy.setMonthsAccrued(stored.getMonthsAccrued());
+        copy.setCarriedOverDays(stored.getCarriedOverDays());
+        copy.setAccruedDays(stored.getAccruedDays());
+        copy.setUsedDays(stored.getUsedDays());
+        return copy;
+    }
+}
@@ -0,0 +1,218 @@
+package com.wenxt.leavemanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wenxt.leavemanagement.dto.LeaveImportResultDTO;
+import com.wenxt.leavemanagement.dto.LeaveRequestDTO;
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Streams admin leave rows from CSV or NDJSON and hands them to
+ * LeaveApplicationService.importAdminChunk in fixed-size chunks, one transaction each.
+ * Only the current chunk and a capped error list are held in memory, whatever the file size.
+ * Committed chunks stay committed if a later chunk fails.
+ * <p>
+ * CSV needs a header row naming the LeaveRequestDTO fields used
+ * (employeeId, leaveType, startDate, endDate, reason, and optionally halfDayType, confirmLossOfPay).
+ * NDJSON carries one LeaveRequestDTO object per line.
+ */
+@Service
+public class LeaveImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private final LeaveApplicationService leaveService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public LeaveImportService(LeaveApplicationService leaveService,
+                              ObjectMapper objectMapper,
+                              @Value("${leave.import.chunk-size:500}") int chunkSize,
+                              @Value("${leave.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.leaveService = leaveService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public LeaveImportResultDTO importAdminLeaves(InputStream body, Format format) throws IOException {
+        LeaveImportResultDTO result = new LeaveImportResultDTO();
+        List<LeaveApplicationService.ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == Format.CSV && columns == null) {
+                    columns = readHeader(line);
+                    continue;
+                }
+
+                result.setTotalRows(result.getTotalRows() + 1);
+                try {
+                    LeaveRequestDTO request = format == Format.CSV ? fromCsv(line, columns) : fromJson(line);
+                    chunk.add(new LeaveApplicationService.ImportRow(lineNumber, toLeave(request), request.isConfirmLossOfPay()));
+                } catch (BadRequestException e) {
+                    fail(result, lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    flush(chunk, result);
+                }
+            }
+        }
+        flush(chunk, result);
+        return result;
+    }
+
+    private void flush(List<LeaveApplicationService.ImportRow> chunk, LeaveImportResultDTO result) {
+        if (chunk.isEmpty()) return;
+        try {
+            List<LeaveImportResultDTO.RowError> errors = leaveService.importAdminChunk(chunk);
+            result.setImportedRows(result.getImportedRows() + chunk.size() - errors.size());
+            for (LeaveImportResultDTO.RowError error : errors) {
+                fail(result, error.getLine(), error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            // The whole chunk rolled back; earlier chunks are unaffected
+            log.warn("Leave import chunk starting at line {} failed", chunk.get(0).line(), e);
+            for (LeaveApplicationService.ImportRow row : chunk) {
+                fail(result, row.line(), "Chunk rolled back: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+    }
+
+    private void fail(LeaveImportResultDTO result, long line, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new LeaveImportResultDTO.RowError(line, message));
+        }
+    }
+
+    // Same mapping as AdminLeaveController.recordAdminLeave, plus the checks the entity's @NotNull fields imply
+    private LeaveApplication toLeave(LeaveRequestDTO request) {
+        if (request.getEmployeeId() == null || request.getLeaveType() == null
+                || request.getStartDate() == null || request.getEndDate() == null
+                || request.getReason() == null || request.getReason().isBlank()) {
+            throw new BadRequestException("employeeId, leaveType, startDate, endDate and reason are required");
+        }
+        LeaveApplication leave = new LeaveApplication();
+        leave.setEmployeeId(request.getEmployeeId());
+        leave.setLeaveType(parseEnum(LeaveType.class, request.getLeaveType(), "leave type"));
+        leave.setStartDate(request.getStartDate());
+        leave.setEndDate(request.getEndDate());
+        leave.setReason(request.getReason());
+        if (request.getHalfDayType() != null && !request.getHalfDayType().isEmpty()) {
+            leave.setHalfDayType(parseEnum(HalfDayType.class, request.getHalfDayType(), "half day type"));
+        }
+        return leave;
+    }
+
+    private LeaveRequestDTO fromJson(String line) {
+        try {
+            return objectMapper.readValue(line, LeaveRequestDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> readHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("employeeId", "leaveType", "startDate", "endDate", "reason")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing column " + required);
+            }
+        }
+        return columns;
+    }
+
+    private LeaveRequestDTO fromCsv(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        LeaveRequestDTO request = new LeaveRequestDTO();
+        try {
+            String employeeId = column(values, columns, "employeeId");
+            request.setEmployeeId(employeeId != null ? Long.valueOf(employeeId) : null);
+            request.setLeaveType(column(values, columns, "leaveType"));
+            String startDate = column(values, columns, "startDate");
+            request.setStartDate(startDate != null ? LocalDate.parse(startDate) : null);
+            String endDate = column(values, columns, "endDate");
+            request.setEndDate(endDate != null ? LocalDate.parse(endDate) : null);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid value: " + e.getMessage());
+        }
+        request.setReason(column(values, columns, "reason"));
+        request.setHalfDayType(column(values, columns, "halfDayType"));
+        request.setConfirmLossOfPay(Boolean.parseBoolean(column(values, columns, "confirmLossOfPay")));
+        return request;
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) return null;
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: commas, double quotes and "" escapes
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private <E extends Enum<E>> E parseEnum(Class<E> type, String value, String label) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid " + label + ": " + value);
+        }
+    }
+}
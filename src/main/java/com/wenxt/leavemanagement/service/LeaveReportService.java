@@ -0,0 +1,135 @@
+package com.wenxt.leavemanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wenxt.leavemanagement.dto.CompOffUsageRowDTO;
+import com.wenxt.leavemanagement.dto.LeaveUsageRowDTO;
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Leave and comp-off usage reports for finance.
+ * Rows are grouped by the database and pulled through a forward-only cursor straight into
+ * the response as CSV or NDJSON, so memory stays flat whatever the table size and the first
+ * bytes are sent as soon as the first row arrives. No entity is ever loaded.
+ */
+@Service
+public class LeaveReportService {
+
+    public enum Granularity { MONTH, YEAR }
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Leave that is booked: applications start PENDING and stay booked once APPROVED
+    private static final List<LeaveStatus> ACTIVE_STATUSES = List.of(LeaveStatus.APPROVED, LeaveStatus.PENDING);
+    // Credits that count as earned; PENDING and REJECTED were never granted
+    private static final List<CompOffStatus> GRANTED_STATES = List.of(CompOffStatus.EARNED, CompOffStatus.USED, CompOffStatus.EXPIRED);
+
+    private static final String[] LEAVE_HEADER = {"employeeId", "leaveType", "year", "month", "applications", "days"};
+    private static final String[] COMP_OFF_HEADER = {"employeeId", "year", "month", "credits", "earnedDays", "usedDays"};
+
+    private final LeaveApplicationRepository leaveRepository;
+    private final CompOffRepository compOffRepository;
+    private final ObjectMapper objectMapper;
+
+    public LeaveReportService(LeaveApplicationRepository leaveRepository,
+                              CompOffRepository compOffRepository,
+                              ObjectMapper objectMapper) {
+        this.leaveRepository = leaveRepository;
+        this.compOffRepository = compOffRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Called before the response is committed, so a bad range is still a 400
+    public void validateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new BadRequestException("fromDate and toDate are required");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new BadRequestException("toDate must not be before fromDate");
+        }
+    }
+
+    /**
+     * 1️⃣ LEAVE USAGE
+     * Booked (approved or pending) leave per employee, leave type and period. A leave counts in the period it starts in.
+     */
+    @Transactional(readOnly = true)
+    public void writeLeaveUsage(LocalDate fromDate, LocalDate toDate, Granularity granularity,
+                                Format format, OutputStream out) throws IOException {
+        try (Stream<LeaveUsageRowDTO> rows = granularity == Granularity.MONTH
+                ? leaveRepository.streamMonthlyUsage(ACTIVE_STATUSES, fromDate, toDate)
+                : leaveRepository.streamYearlyUsage(ACTIVE_STATUSES, fromDate, toDate)) {
+            write(rows, format, out, LEAVE_HEADER, row -> new Object[]{
+                    row.getEmployeeId(), row.getLeaveType(), row.getYear(), row.getMonth(), row.getApplications(), row.getDays()});
+        }
+    }
+
+    /**
+     * 2️⃣ COMP-OFF USAGE
+     * Credits granted per employee and period of the worked date, with the part already drawn by leave.
+     */
+    @Transactional(readOnly = true)
+    public void writeCompOffUsage(LocalDate fromDate, LocalDate toDate, Granularity granularity,
+                                  Format format, OutputStream out) throws IOException {
+        try (Stream<CompOffUsageRowDTO> rows = granularity == Granularity.MONTH
+                ? compOffRepository.streamMonthlyUsage(GRANTED_STATES, fromDate, toDate)
+                : compOffRepository.streamYearlyUsage(GRANTED_STATES, fromDate, toDate)) {
+            write(rows, format, out, COMP_OFF_HEADER, row -> new Object[]{
+                    row.getEmployeeId(), row.getYear(), row.getMonth(), row.getCredits(), row.getEarnedDays(), row.getUsedDays()});
+        }
+    }
+
+    private <T> void write(Stream<T> rows, Format format, OutputStream out, String[] header,
+                           Function<T, Object[]> columns) throws IOException {
+        Iterator<T> it = rows.iterator();
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(String.join(",", header));
+            writer.write('\n');
+            // The header goes out at once; the rest leaves whenever the buffer fills
+            writer.flush();
+            while (it.hasNext()) {
+                Object[] values = columns.apply(it.next());
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) writer.write(',');
+                    if (values[i] != null) writer.write(values[i].toString());
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        } else {
+            // The generator must not close the response stream (the container does) nor flush after every row
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out, BUFFER_SIZE));
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            boolean first = true;
+            while (it.hasNext()) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (first) {
+                    generator.flush();
+                    first = false;
+                }
+            }
+            generator.flush();
+        }
+    }
+}
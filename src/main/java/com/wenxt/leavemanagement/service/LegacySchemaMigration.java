@@ -0,0 +1,171 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.model.CompOffConsumption;
+import com.wenxt.leavemanagement.repository.CompOffConsumptionRepository;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * One-time fixes for databases created by older builds. ddl-auto=update adds missing tables,
+ * columns and sequences but never touches existing data, so anything that depends on that
+ * data is repaired here. Runs after the schema update and before the web server accepts
+ * requests; on a database that needs nothing every step is a read-only check.
+ */
+@Component
+public class LegacySchemaMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacySchemaMigration.class);
+
+    private static final String WORKED_DATE_CONSTRAINT = "uk_comp_off_employee_worked_date";
+    private static final List<CompOffStatus> CONSUMABLE_STATES = List.of(CompOffStatus.EARNED, CompOffStatus.USED, CompOffStatus.EXPIRED);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CompOffRepository compOffRepository;
+    private final CompOffConsumptionRepository consumptionRepository;
+    private final TransactionTemplate transaction;
+
+    public LegacySchemaMigration(JdbcTemplate jdbcTemplate,
+                                 CompOffRepository compOffRepository,
+                                 CompOffConsumptionRepository consumptionRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compOffRepository = compOffRepository;
+        this.consumptionRepository = consumptionRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // comp_off ids came from IDENTITY before the pooled sequence
+        restartSequenceAbove("comp_off_seq", "comp_off", "id");
+        // ... and so did leave application ids before the bulk import
+        restartSequenceAbove("emp_leave_application_seq", "emp_leave_application", "application_id");
+        // Credits split on use share a worked date, so the unique key could not be created over them
+        transaction.executeWithoutResult(status -> mergeCompOffFragments());
+        ensureWorkedDateConstraint();
+    }
+
+    /**
+     * A sequence that ddl-auto created next to a table that already had rows starts at 1.
+     * Hibernate's pooled optimizer hands out the block ending at the value it reads, so the
+     * sequence is moved to MAX(column) + increment and the first new id is MAX(column) + 1.
+     */
+    private void restartSequenceAbove(String sequence, String table, String column) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT BASE_VALUE, INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                sequence.toUpperCase());
+        if (rows.isEmpty()) return;
+
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+        long next = ((Number) rows.get(0).get("BASE_VALUE")).longValue();
+        long increment = ((Number) rows.get(0).get("INCREMENT")).longValue();
+        if (max == null || next - increment >= max) return;
+
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + increment));
+        log.info("Restarted {} at {} above existing {}.{} values", sequence, max + increment, table, column);
+    }
+
+    /**
+     * Folds every group of EARNED, USED and EXPIRED rows that share an employee and worked date into
+     * the oldest row of the group. Days and remaining days add up, so the comp_off_balance ledger is
+     * unchanged: the group stays EARNED while any part of it is, else EXPIRED while any part is, else
+     * USED. Days an expired part forfeited are dropped when the group stays EARNED. Consumptions move
+     * to the kept row; a part consumed before consumption rows existed gets one for its linked leave,
+     * so cancelling that leave still gives the days back.
+     */
+    private void mergeCompOffFragments() {
+        List<CompOff> fragments = compOffRepository.findFragments(CONSUMABLE_STATES);
+        if (fragments.isEmpty()) return;
+
+        Map<String, List<CompOff>> groups = new LinkedHashMap<>();
+        for (CompOff fragment : fragments) {
+            groups.computeIfAbsent(fragment.getEmployeeId() + "|" + fragment.getWorkedDate(), k -> new ArrayList<>()).add(fragment);
+        }
+        Set<Long> consumedIds = new HashSet<>(consumptionRepository.findConsumedCompOffIds(
+                fragments.stream().map(CompOff::getId).toList()));
+
+        List<CompOffConsumption> linked = new ArrayList<>();
+        List<CompOff> absorbed = new ArrayList<>();
+        for (List<CompOff> group : groups.values()) {
+            CompOff keeper = group.get(0);
+            BigDecimal days = BigDecimal.ZERO;
+            BigDecimal earnedRemaining = BigDecimal.ZERO;
+            BigDecimal expiredRemaining = BigDecimal.ZERO;
+            boolean anyEarned = false;
+            boolean anyExpired = false;
+            for (CompOff fragment : group) {
+                BigDecimal remaining = remainingOf(fragment);
+                days = days.add(fragment.getDays());
+                if (fragment.getStatus() == CompOffStatus.EARNED) {
+                    anyEarned = true;
+                    earnedRemaining = earnedRemaining.add(remaining);
+                } else if (fragment.getStatus() == CompOffStatus.EXPIRED) {
+                    anyExpired = true;
+                    expiredRemaining = expiredRemaining.add(remaining);
+                }
+                if (fragment.getUsedLeaveApplicationId() != null && !consumedIds.contains(fragment.getId())
+                        && fragment.getDays().compareTo(remaining) > 0) {
+                    CompOffConsumption consumption = new CompOffConsumption();
+                    consumption.setCompOffId(keeper.getId());
+                    consumption.setLeaveApplicationId(fragment.getUsedLeaveApplicationId());
+                    consumption.setEmployeeId(fragment.getEmployeeId());
+                    consumption.setDays(fragment.getDays().subtract(remaining));
+                    linked.add(consumption);
+                }
+                if (fragment != keeper) absorbed.add(fragment);
+            }
+
+            if (anyEarned) {
+                keeper.setStatus(CompOffStatus.EARNED);
+                keeper.setDays(days.subtract(expiredRemaining));
+                keeper.setRemainingDays(earnedRemaining);
+            } else {
+                keeper.setStatus(anyExpired ? CompOffStatus.EXPIRED : CompOffStatus.USED);
+                keeper.setDays(days);
+                keeper.setRemainingDays(expiredRemaining);
+            }
+            keeper.setUsedLeaveApplicationId(null);
+            consumptionRepository.reassign(group.stream().skip(1).map(CompOff::getId).toList(), keeper.getId());
+        }
+        consumptionRepository.saveAll(linked);
+        compOffRepository.deleteAllInBatch(absorbed);
+        log.info("Merged {} comp-off fragment(s) into {} credit(s)", absorbed.size(), groups.size());
+    }
+
+    // remaining_days is backfilled only once the application is ready
+    private BigDecimal remainingOf(CompOff fragment) {
+        if (fragment.getRemainingDays() != null) return fragment.getRemainingDays();
+        return fragment.getStatus() == CompOffStatus.USED ? BigDecimal.ZERO : fragment.getDays();
+    }
+
+    /**
+     * ddl-auto drops and recreates unique keys quietly, so on a database that still had fragments the
+     * key was skipped. Duplicate banking and lot consumption rely on it: refuse to start without it.
+     */
+    private void ensureWorkedDateConstraint() {
+        Integer present = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE CONSTRAINT_NAME = ?",
+                Integer.class, WORKED_DATE_CONSTRAINT.toUpperCase());
+        if (present != null && present > 0) return;
+        try {
+            jdbcTemplate.execute("ALTER TABLE comp_off ADD CONSTRAINT " + WORKED_DATE_CONSTRAINT
+                    + " UNIQUE (employee_id, worked_date)");
+            log.info("Created {} on comp_off", WORKED_DATE_CONSTRAINT);
+        } catch (DataAccessException e) {
+            throw new IllegalStateException("comp_off still has several rows for one employee and worked date "
+                    + "(e.g. PENDING or REJECTED duplicates); resolve them before starting", e);
+        }
+    }
+}
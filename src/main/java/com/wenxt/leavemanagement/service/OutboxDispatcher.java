@@ -0,0 +1,153 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.model.OutboxEvent;
+import com.wenxt.leavemanagement.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers committed outbox events to the configured sinks in the background.
+ * <p>
+ * Events are taken in batches of {@code batch-size}, oldest first. Claiming a batch is a short
+ * transaction that leases it for {@code lease-ms}; delivery happens outside any transaction, and
+ * a second short transaction marks the batch delivered. A process that dies mid-batch leaves the
+ * lease to run out, after which the batch is delivered again: delivery is at least once, never
+ * lost. A failed batch backs off exponentially and is parked after {@code max-attempts}.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long leaseMillis;
+    private final long retentionMillis;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+                            List<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${outbox.dispatch.batch-size:100}") int batchSize,
+                            @Value("${outbox.dispatch.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.dispatch.backoff-ms:1000}") long backoffMillis,
+                            @Value("${outbox.dispatch.max-backoff-ms:600000}") long maxBackoffMillis,
+                            @Value("${outbox.dispatch.lease-ms:60000}") long leaseMillis,
+                            @Value("${outbox.retention-ms:604800000}") long retentionMillis) {
+        this.outboxRepository = outboxRepository;
+        this.sinks = sinks;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.leaseMillis = leaseMillis;
+        this.retentionMillis = retentionMillis;
+        if (sinks.isEmpty()) {
+            log.warn("No outbox sink configured; events stay in outbox_event until one is");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch.interval-ms:1000}")
+    public void dispatchScheduled() {
+        dispatch();
+    }
+
+    /**
+     * Delivers due batches until none is left or one fails, and returns the number of events delivered.
+     * Returns 0 at once while another dispatch of this process is running.
+     */
+    public int dispatch() {
+        if (sinks.isEmpty() || !running.compareAndSet(false, true)) return 0;
+        try {
+            int delivered = 0;
+            while (true) {
+                List<OutboxEvent> batch = transaction.execute(status -> claim());
+                if (batch == null || batch.isEmpty()) break;
+
+                List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+                try {
+                    for (OutboxSink sink : sinks) {
+                        sink.deliver(batch);
+                    }
+                } catch (Exception e) {
+                    log.warn("Outbox delivery of {} event(s) from id {} failed: {}", ids.size(), ids.get(0), e.toString());
+                    transaction.executeWithoutResult(status -> recordFailure(batch, e));
+                    break;
+                }
+                transaction.executeWithoutResult(status -> outboxRepository.markDelivered(ids, LocalDateTime.now()));
+                delivered += ids.size();
+                if (batch.size() < batchSize) break;
+            }
+            return delivered;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 45 3 * * *}")
+    public void purgeDelivered() {
+        Integer purged = transaction.execute(status ->
+                outboxRepository.deleteDeliveredBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMillis))));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} delivered outbox event(s)", purged);
+        }
+    }
+
+    // Leased rows are invisible to other dispatchers until the lease runs out
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = outboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) return List.of();
+
+        List<OutboxEvent> batch = new ArrayList<>(outboxRepository.findDueForUpdate(dueIds, now));
+        if (!batch.isEmpty()) {
+            outboxRepository.lease(batch.stream().map(OutboxEvent::getId).toList(), now.plus(Duration.ofMillis(leaseMillis)));
+        }
+        return batch;
+    }
+
+    // Events of a batch may have failed before a different number of times, so each count gets its own backoff
+    private void recordFailure(List<OutboxEvent> batch, Exception failure) {
+        Map<Integer, List<Long>> idsByAttempts = new TreeMap<>();
+        for (OutboxEvent event : batch) {
+            idsByAttempts.computeIfAbsent(event.getAttempts() + 1, attempts -> new ArrayList<>()).add(event.getId());
+        }
+        String error = String.valueOf(failure);
+        if (error.length() > MAX_ERROR_LENGTH) error = error.substring(0, MAX_ERROR_LENGTH);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, List<Long>> entry : idsByAttempts.entrySet()) {
+            int attempts = entry.getKey();
+            LocalDateTime nextAttemptAt = null;
+            if (attempts < maxAttempts) {
+                long delay = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 20));
+                nextAttemptAt = now.plus(Duration.ofMillis(delay));
+            } else {
+                log.error("Outbox event(s) {} parked after {} attempts", entry.getValue(), attempts);
+            }
+            outboxRepository.markFailed(entry.getValue(), nextAttemptAt, error);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.wenxt.leavemanagement.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wenxt.leavemanagement.enums.OutboxEventType;
+import com.wenxt.leavemanagement.model.OutboxEvent;
+import com.wenxt.leavemanagement.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Records domain events in the outbox_event table.
+ * Publishing is one insert in the caller's transaction: nothing leaves the process here, so a
+ * slow or unavailable consumer never lengthens a request, and a rollback takes its events with it.
+ * {@link OutboxDispatcher} delivers them after commit.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, Long aggregateId, Long employeeId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateId(aggregateId);
+        event.setEmployeeId(employeeId);
+        event.setPayload(toJson(payload));
+        event.setOccurredAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getOccurredAt());
+        outboxRepository.save(event);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> stats() {
+        return Map.of(
+                "pending", outboxRepository.countByDeliveredAtIsNullAndNextAttemptAtIsNotNull(),
+                "parked", outboxRepository.countByDeliveredAtIsNullAndNextAttemptAtIsNull());
+    }
+
+    @Transactional
+    public int requeueParked() {
+        return outboxRepository.requeueParked(LocalDateTime.now());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload could not be serialised", e);
+        }
+    }
+}
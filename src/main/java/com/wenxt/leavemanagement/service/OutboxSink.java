@@ -0,0 +1,15 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of outbox events, picked with outbox.sink.type.
+ * A batch counts as delivered only when deliver returns; throwing makes the whole batch retry,
+ * so an implementation must tolerate seeing an event again.
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,180 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.LeaveSummaryDTO;
+import com.wenxt.leavemanagement.dto.TeamAvailabilityDTO;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import com.wenxt.leavemanagement.util.HolidayChecker;
+import com.wenxt.leavemanagement.util.LeaveOccupancyIndex;
+import com.wenxt.leavemanagement.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Answers "who is out" from an in-memory day-level occupancy index of PENDING/APPROVED leave.
+ * <p>
+ * The index covers leave ending within the last {@code leave.occupancy.history-days} and later.
+ * It is updated after every committed apply or cancellation and rebuilt on a fixed delay,
+ * which rolls the window forward and picks up writes made by other nodes.
+ * Ranges starting before the window are answered from the database instead.
+ */
+@Service
+public class TeamAvailabilityService {
+
+    private static final List<LeaveStatus> ACTIVE_STATUSES = List.of(LeaveStatus.APPROVED, LeaveStatus.PENDING);
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final int MAX_EMPLOYEES = 2000;
+
+    private final LeaveApplicationRepository repository;
+    private final HolidayChecker holidayChecker;
+    private final int historyDays;
+
+    private volatile LeaveOccupancyIndex index = new LeaveOccupancyIndex();
+    private volatile LocalDate coveredFrom = LocalDate.MAX;
+
+    // Non-null while a rebuild is loading; writers update it too, removals are remembered
+    private LeaveOccupancyIndex building;
+    private Set<Long> removedWhileBuilding;
+
+    public TeamAvailabilityService(LeaveApplicationRepository repository,
+                                   HolidayChecker holidayChecker,
+                                   @Value("${leave.occupancy.history-days:400}") int historyDays) {
+        this.repository = repository;
+        this.holidayChecker = holidayChecker;
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * 1️⃣ REBUILD
+     * Loads the window from the database into a fresh index and swaps it in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${leave.occupancy.rebuild-interval-ms:900000}",
+            initialDelayString = "${leave.occupancy.rebuild-interval-ms:900000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        LocalDate from = LocalDate.now().minusDays(historyDays);
+        LeaveOccupancyIndex next = new LeaveOccupancyIndex();
+        Set<Long> removed;
+        synchronized (this) {
+            building = next;
+            removed = removedWhileBuilding = new HashSet<>();
+        }
+        try {
+            List<LeaveSummaryDTO> rows = repository.findSummariesEndingOnOrAfter(ACTIVE_STATUSES, from);
+            synchronized (this) {
+                for (LeaveSummaryDTO row : rows) {
+                    // A cancellation committed after our read must not be resurrected
+                    if (!removed.contains(row.getApplicationId())) next.putIfAbsent(toBooking(row));
+                }
+                index = next;
+                coveredFrom = from;
+            }
+        } finally {
+            synchronized (this) {
+                building = null;
+                removedWhileBuilding = null;
+            }
+        }
+    }
+
+    /**
+     * 2️⃣ INCREMENTAL UPDATES
+     * Called inside the transaction that changed the leave; the index changes on commit.
+     */
+    public void recordAfterCommit(LeaveSummaryDTO leave) {
+        TransactionCallbacks.afterCommit(() -> record(leave));
+    }
+
+    public void removeAfterCommit(Collection<Long> applicationIds) {
+        if (applicationIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(applicationIds);
+        TransactionCallbacks.afterCommit(() -> remove(ids));
+    }
+
+    /**
+     * 3️⃣ QUERY
+     * Daily absence for the given employees, skipping each employee's non-working days.
+     */
+    public TeamAvailabilityDTO getAvailability(Collection<Long> employeeIds, LocalDate fromDate, LocalDate toDate) {
+        if (employeeIds == null || employeeIds.isEmpty() || fromDate == null || toDate == null) {
+            throw new BadRequestException("employeeIds, fromDate and toDate are required");
+        }
+        if (toDate.isBefore(fromDate)) {
+            throw new BadRequestException("End date cannot be before start date");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_RANGE_DAYS || employeeIds.size() > MAX_EMPLOYEES) {
+            throw new BadRequestException("At most " + MAX_RANGE_DAYS + " days and " + MAX_EMPLOYEES + " employees per query");
+        }
+        Set<Long> team = new HashSet<>(employeeIds);
+
+        LeaveOccupancyIndex source = index;
+        if (fromDate.isBefore(coveredFrom)) {
+            // Older than the window (or not loaded yet): build a throwaway index for just this query
+            source = new LeaveOccupancyIndex();
+            for (LeaveSummaryDTO row : repository.findSummariesOverlapping(team, ACTIVE_STATUSES, fromDate, toDate)) {
+                source.put(toBooking(row));
+            }
+        }
+
+        TeamAvailabilityDTO result = new TeamAvailabilityDTO();
+        Map<Long, Integer> halfDaysByEmployee = new HashMap<>();
+        for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+            TeamAvailabilityDTO.DayAvailability day = new TeamAvailabilityDTO.DayAvailability(date);
+            long epochDay = date.toEpochDay();
+            halfDaysByEmployee.clear();
+
+            for (LeaveOccupancyIndex.Booking booking : source.bookingsOn(date)) {
+                if (!team.contains(booking.employeeId())
+                        || holidayChecker.isNonWorkingDay(booking.employeeId(), date)) continue;
+
+                int halfDays = booking.halfDaysOn(epochDay);
+                halfDaysByEmployee.merge(booking.employeeId(), halfDays, (a, b) -> Math.min(2, a + b));
+                day.getAbsentees().add(new TeamAvailabilityDTO.Absence(booking.employeeId(), booking.applicationId(),
+                        booking.leaveType(), booking.status(), booking.halfDayType(), BigDecimal.valueOf(halfDays * 5L, 1)));
+            }
+
+            int totalHalfDays = 0;
+            for (int halfDays : halfDaysByEmployee.values()) totalHalfDays += halfDays;
+            day.setAbsentCount(halfDaysByEmployee.size());
+            day.setAbsentDays(BigDecimal.valueOf(totalHalfDays * 5L, 1));
+            result.getDays().add(day);
+        }
+        return result;
+    }
+
+    private synchronized void record(LeaveSummaryDTO leave) {
+        if (!ACTIVE_STATUSES.contains(leave.getStatus())) {
+            remove(List.of(leave.getApplicationId()));
+            return;
+        }
+        LeaveOccupancyIndex.Booking booking = toBooking(leave);
+        index.put(booking);
+        if (building != null) building.put(booking);
+    }
+
+    private synchronized void remove(Collection<Long> applicationIds) {
+        for (Long id : applicationIds) {
+            index.remove(id);
+            if (building != null) {
+                building.remove(id);
+                removedWhileBuilding.add(id);
+            }
+        }
+    }
+
+    private LeaveOccupancyIndex.Booking toBooking(LeaveSummaryDTO leave) {
+        return new LeaveOccupancyIndex.Booking(leave.getApplicationId(), leave.getEmployeeId(), leave.getLeaveType(),
+                leave.getHalfDayType(), leave.getStatus(), leave.getStartDate().toEpochDay(), leave.getEndDate().toEpochDay());
+    }
+}
@@ -0,0 +1,112 @@
+package com.wenxt.leavemanagement.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small concurrent read-through cache with a size bound and a time-to-live.
+ * <p>
+ * Invalidation is exact: a value loaded while an invalidation is in flight is never
+ * left behind, because {@link #invalidate} bumps a generation counter before removing
+ * the key and loaders drop their own entry if the generation moved while they loaded.
+ */
+public final class BoundedTtlCache<K, V> {
+
+    // How many entries a full cache inspects to find the one closest to expiry
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        Entry<V> cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt - now > 0) {
+                hits.increment();
+                return cached.value;
+            }
+            if (entries.remove(key, cached)) evictions.increment();
+        }
+        misses.increment();
+
+        long stamp = generation.get();
+        V value = loader.apply(key);
+        if (value == null) return null;
+
+        Entry<V> loaded = new Entry<>(value, System.nanoTime() + ttlNanos);
+        makeRoom();
+        entries.put(key, loaded);
+        if (generation.get() != stamp) {
+            // A write was invalidated while we loaded; our value may predate it
+            entries.remove(key, loaded);
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void makeRoom() {
+        if (entries.size() < maxSize) return;
+
+        long now = System.nanoTime();
+        K victim = null;
+        Entry<V> victimEntry = null;
+        int sampled = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            Entry<V> entry = candidate.getValue();
+            if (entry.expiresAt - now <= 0) {
+                if (entries.remove(candidate.getKey(), entry)) evictions.increment();
+                return;
+            }
+            if (victimEntry == null || entry.expiresAt - victimEntry.expiresAt < 0) {
+                victim = candidate.getKey();
+                victimEntry = entry;
+            }
+        }
+        if (victim != null && entries.remove(victim, victimEntry)) evictions.increment();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
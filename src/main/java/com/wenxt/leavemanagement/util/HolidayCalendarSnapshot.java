@@ -0,0 +1,33 @@
+package com.wenxt.leavemanagement.util;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of every holiday calendar and employee assignment.
+ * Never mutated after construction; {@link HolidayChecker} swaps whole snapshots on reload.
+ */
+public final class HolidayCalendarSnapshot {
+
+    private final WorkingCalendar defaultCalendar;
+    private final Map<Long, WorkingCalendar> calendarsByEmployee;
+
+    public HolidayCalendarSnapshot(WorkingCalendar defaultCalendar,
+                                   Map<Long, WorkingCalendar> calendarsByEmployee) {
+        this.defaultCalendar = defaultCalendar;
+        this.calendarsByEmployee = Map.copyOf(calendarsByEmployee);
+    }
+
+    public static HolidayCalendarSnapshot builtIn(String defaultCode) {
+        return new HolidayCalendarSnapshot(WorkingCalendar.builtIn(defaultCode), Map.of());
+    }
+
+    public WorkingCalendar defaultCalendar() {
+        return defaultCalendar;
+    }
+
+    public WorkingCalendar calendarFor(Long employeeId) {
+        if (employeeId == null) return defaultCalendar;
+        WorkingCalendar calendar = calendarsByEmployee.get(employeeId);
+        return calendar != null ? calendar : defaultCalendar;
+    }
+}
@@ -6,13 +6,32 @@ import java.time.*;
 @Component
 public class HolidayChecker {
 
+    public static final String DEFAULT_CALENDAR = "DEFAULT";
+
+    // Replaced wholesale by HolidayCalendarService on reload; readers never see a half-built calendar
+    private volatile HolidayCalendarSnapshot snapshot = HolidayCalendarSnapshot.builtIn(DEFAULT_CALENDAR);
+
     public boolean isNonWorkingDay(LocalDate date) {
-        return date.getDayOfWeek() == DayOfWeek.SATURDAY
-                || date.getDayOfWeek() == DayOfWeek.SUNDAY
-                || MonthDay.from(date).equals(MonthDay.of(1,1))
-                || MonthDay.from(date).equals(MonthDay.of(1,26))
-                || MonthDay.from(date).equals(MonthDay.of(8,15))
-                || MonthDay.from(date).equals(MonthDay.of(10,2))
-                || MonthDay.from(date).equals(MonthDay.of(12,25));
+        return snapshot.defaultCalendar().isNonWorkingDay(date);
+    }
+
+    public boolean isNonWorkingDay(Long employeeId, LocalDate date) {
+        return snapshot.calendarFor(employeeId).isNonWorkingDay(date);
+    }
+
+    /**
+     * Counts working days between {@code start} and {@code end}, both inclusive,
+     * on the calendar the employee is assigned to.
+     */
+    public int countWorkingDays(Long employeeId, LocalDate start, LocalDate end) {
+        return snapshot.calendarFor(employeeId).countWorkingDays(start, end);
+    }
+
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        return snapshot.defaultCalendar().countWorkingDays(start, end);
+    }
+
+    public void replaceSnapshot(HolidayCalendarSnapshot next) {
+        this.snapshot = next;
     }
 }
@@ -0,0 +1,119 @@
+package com.wenxt.leavemanagement.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, expiring record of recently seen idempotency keys and their results.
+ * <p>
+ * The first caller of {@link #claim} for a key owns it and must {@link #complete} or
+ * {@link #abandon} it; every other caller gets the owner's future and can wait on it.
+ * Abandoned keys fail their waiters with a CancellationException so one of them can
+ * claim the key again. Entries still in flight are never evicted.
+ * <p>
+ * A key may be claimed with a fingerprint of the request it stands for; claiming it again
+ * with a different fingerprint is a client reusing the key for another request.
+ */
+public final class IdempotencyStore<V> {
+
+    // How many entries a full store inspects to find the one closest to expiry
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns null when the caller now owns the key, otherwise the future of the request that does.
+     */
+    public CompletableFuture<V> claim(String key) {
+        return claim(key, null);
+    }
+
+    /**
+     * Same as {@link #claim(String)}, but throws {@link KeyReusedException} when the key is held
+     * for a request with another fingerprint.
+     */
+    public CompletableFuture<V> claim(String key, String fingerprint) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry<V> existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.isExpired(now)) return existing.resultFor(fingerprint);
+                entries.remove(key, existing);
+                continue;
+            }
+            makeRoom(now);
+            Entry<V> claimed = new Entry<>(new CompletableFuture<>(), fingerprint, now + ttlNanos);
+            Entry<V> raced = entries.putIfAbsent(key, claimed);
+            if (raced == null) return null;
+            if (!raced.isExpired(now)) return raced.resultFor(fingerprint);
+        }
+    }
+
+    public void complete(String key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) entry.result.complete(value);
+    }
+
+    public void abandon(String key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) entry.result.completeExceptionally(new CancellationException("Original request failed"));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < maxSize) return;
+
+        String victim = null;
+        Entry<V> victimEntry = null;
+        int sampled = 0;
+        for (Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext() && sampled < EVICTION_SAMPLE; sampled++) {
+            Map.Entry<String, Entry<V>> candidate = it.next();
+            Entry<V> entry = candidate.getValue();
+            if (!entry.result.isDone()) continue;
+            if (entry.isExpired(now)) {
+                entries.remove(candidate.getKey(), entry);
+                return;
+            }
+            if (victimEntry == null || entry.expiresAt - victimEntry.expiresAt < 0) {
+                victim = candidate.getKey();
+                victimEntry = entry;
+            }
+        }
+        if (victim != null) entries.remove(victim, victimEntry);
+    }
+
+    private record Entry<V>(CompletableFuture<V> result, String fingerprint, long expiresAt) {
+
+        // In-flight entries never expire; their owner completes or abandons them
+        boolean isExpired(long now) {
+            return result.isDone() && expiresAt - now <= 0;
+        }
+
+        CompletableFuture<V> resultFor(String requested) {
+            if (fingerprint != null && requested != null && !fingerprint.equals(requested)) {
+                throw new KeyReusedException();
+            }
+            return result;
+        }
+    }
+
+    public static final class KeyReusedException extends RuntimeException {
+
+        KeyReusedException() {
+            super("Idempotency key was already used for a different request");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wenxt.leavemanagement.util;
+
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Day-level occupancy of active leave: for every calendar day, the bookings covering it.
+ * <p>
+ * Reads are lock-free; writers serialise on the index so a booking is never half-moved.
+ * Calendar days are stored as-is and non-working days are filtered by the reader,
+ * so holiday calendar changes need no re-indexing.
+ */
+public final class LeaveOccupancyIndex {
+
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Booking>> bookingsByDay = new ConcurrentHashMap<>();
+
+    public synchronized void put(Booking booking) {
+        Booking previous = bookings.put(booking.applicationId(), booking);
+        if (previous != null) unlink(previous);
+        link(booking);
+    }
+
+    // Used by bulk loads, which must not overwrite what a concurrent writer already stored
+    public synchronized void putIfAbsent(Booking booking) {
+        if (bookings.putIfAbsent(booking.applicationId(), booking) == null) link(booking);
+    }
+
+    public synchronized void remove(Long applicationId) {
+        Booking previous = bookings.remove(applicationId);
+        if (previous != null) unlink(previous);
+    }
+
+    public Collection<Booking> bookingsOn(LocalDate date) {
+        Map<Long, Booking> day = bookingsByDay.get(date.toEpochDay());
+        return day != null ? day.values() : List.of();
+    }
+
+    public int size() {
+        return bookings.size();
+    }
+
+    private void link(Booking booking) {
+        for (long day = booking.startDay(); day <= booking.endDay(); day++) {
+            bookingsByDay.computeIfAbsent(day, d -> new ConcurrentHashMap<>()).put(booking.applicationId(), booking);
+        }
+    }
+
+    private void unlink(Booking booking) {
+        for (long day = booking.startDay(); day <= booking.endDay(); day++) {
+            Map<Long, Booking> onDay = bookingsByDay.get(day);
+            if (onDay == null) continue;
+            onDay.remove(booking.applicationId());
+            if (onDay.isEmpty()) bookingsByDay.remove(day, onDay);
+        }
+    }
+
+    public record Booking(Long applicationId, Long employeeId, LeaveType leaveType, HalfDayType halfDayType,
+                          LeaveStatus status, long startDay, long endDay) {
+
+        /**
+         * Absence on the given day in half days (2 = full day), assuming it is a working day.
+         * Mirrors LeaveApplicationService.calculateLeaveDuration: HALF_DAY leave is half of every
+         * day, a half-day marker on other leave halves the last day.
+         */
+        public int halfDaysOn(long day) {
+            if (leaveType == LeaveType.HALF_DAY) return 1;
+            if (halfDayType != null && day == endDay) return 1;
+            return 2;
+        }
+    }
+}
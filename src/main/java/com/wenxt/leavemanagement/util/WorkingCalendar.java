@@ -0,0 +1,83 @@
+package com.wenxt.leavemanagement.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable non-working-day rules for one region/office calendar.
+ * Lookups only read primitive arrays, so {@link #isNonWorkingDay} never allocates;
+ * per-year working-day indexes are built on first use and cached with the calendar.
+ */
+public final class WorkingCalendar {
+
+    private static final List<MonthDay> BUILT_IN_HOLIDAYS = List.of(
+            MonthDay.of(1, 1), MonthDay.of(1, 26), MonthDay.of(8, 15), MonthDay.of(10, 2), MonthDay.of(12, 25));
+
+    private final String code;
+    private final int weekendMask;
+    private final boolean[] recurringHolidays = new boolean[12 * 31];
+    private final long[] fixedHolidays;
+    private final ConcurrentMap<Integer, WorkingDayIndex> yearIndexes = new ConcurrentHashMap<>();
+
+    public WorkingCalendar(String code, Set<DayOfWeek> weekendDays,
+                           Collection<MonthDay> recurring, Collection<LocalDate> fixed) {
+        this.code = code;
+        int mask = 0;
+        for (DayOfWeek day : weekendDays) {
+            mask |= 1 << day.getValue();
+        }
+        this.weekendMask = mask;
+        for (MonthDay monthDay : recurring) {
+            recurringHolidays[slot(monthDay.getMonthValue(), monthDay.getDayOfMonth())] = true;
+        }
+        this.fixedHolidays = fixed.stream().mapToLong(LocalDate::toEpochDay).sorted().distinct().toArray();
+    }
+
+    /** Saturday/Sunday weekend plus the national holidays the application originally shipped with. */
+    public static WorkingCalendar builtIn(String code) {
+        return new WorkingCalendar(code, Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), BUILT_IN_HOLIDAYS, List.of());
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean isNonWorkingDay(LocalDate date) {
+        return (weekendMask & (1 << date.getDayOfWeek().getValue())) != 0
+                || recurringHolidays[slot(date.getMonthValue(), date.getDayOfMonth())]
+                || (fixedHolidays.length > 0 && Arrays.binarySearch(fixedHolidays, date.toEpochDay()) >= 0);
+    }
+
+    /**
+     * Counts working days between {@code start} and {@code end}, both inclusive.
+     * Same-year ranges are answered from the cached index in constant time.
+     */
+    public int countWorkingDays(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) return 0;
+
+        if (start.getYear() == end.getYear()) {
+            return indexFor(start.getYear()).count(start.getDayOfYear(), end.getDayOfYear());
+        }
+
+        int total = indexFor(start.getYear()).countFrom(start.getDayOfYear());
+        for (int year = start.getYear() + 1; year < end.getYear(); year++) {
+            total += indexFor(year).total();
+        }
+        return total + indexFor(end.getYear()).countThrough(end.getDayOfYear());
+    }
+
+    private WorkingDayIndex indexFor(int year) {
+        return yearIndexes.computeIfAbsent(year, y -> new WorkingDayIndex(y, this::isNonWorkingDay));
+    }
+
+    private static int slot(int month, int dayOfMonth) {
+        return (month - 1) * 31 + (dayOfMonth - 1);
+    }
+}
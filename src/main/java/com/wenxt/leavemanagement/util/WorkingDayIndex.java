@@ -0,0 +1,61 @@
+package com.wenxt.leavemanagement.util;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * Immutable working-day bitset for one calendar year.
+ * Bit (dayOfYear - 1) is set when that day is a working day, and {@code rank[w]}
+ * holds the number of working days in all words before {@code w}, so counting
+ * the working days of any range is two rank lookups.
+ */
+final class WorkingDayIndex {
+
+    private final int length;
+    private final long[] words;
+    private final int[] rank;
+
+    WorkingDayIndex(int year, Predicate<LocalDate> isNonWorkingDay) {
+        LocalDate date = LocalDate.of(year, 1, 1);
+        this.length = date.lengthOfYear();
+        this.words = new long[(length + 63) >>> 6];
+        this.rank = new int[words.length + 1];
+
+        for (int i = 0; i < length; i++, date = date.plusDays(1)) {
+            if (!isNonWorkingDay.test(date)) {
+                words[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        for (int w = 0; w < words.length; w++) {
+            rank[w + 1] = rank[w] + Long.bitCount(words[w]);
+        }
+    }
+
+    /** Working days in the whole year. */
+    int total() {
+        return rank[words.length];
+    }
+
+    /** Working days from day-of-year {@code fromDay} through {@code toDay}, both inclusive. */
+    int count(int fromDay, int toDay) {
+        return rankBefore(toDay) - rankBefore(fromDay - 1);
+    }
+
+    /** Working days from day-of-year {@code fromDay} to the end of the year. */
+    int countFrom(int fromDay) {
+        return total() - rankBefore(fromDay - 1);
+    }
+
+    /** Working days from January 1st through day-of-year {@code toDay}. */
+    int countThrough(int toDay) {
+        return rankBefore(toDay);
+    }
+
+    // Number of working days among the first n days of the year
+    private int rankBefore(int n) {
+        if (n <= 0) return 0;
+        if (n >= length) return total();
+        long mask = (1L << (n & 63)) - 1;
+        return rank[n >>> 6] + Long.bitCount(words[n >>> 6] & mask);
+    }
+}
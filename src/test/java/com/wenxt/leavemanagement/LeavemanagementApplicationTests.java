@@ -1,10 +1,9 @@
 package com.wenxt.leavemanagement;
 
+import com.wenxt.leavemanagement.support.IntegrationTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class LeavemanagementApplicationTests {
+class LeavemanagementApplicationTests extends IntegrationTest {
 
     @Test
     void contextLoads() {
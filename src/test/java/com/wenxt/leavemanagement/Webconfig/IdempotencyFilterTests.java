@@ -0,0 +1,63 @@
+package com.wenxt.leavemanagement.Webconfig;
+
+import com.wenxt.leavemanagement.util.IdempotencyStore;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTests {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyStore<>(100, 60_000), 1_000, 16);
+
+    @Test
+    void replayRestoresTheStoredHeaders() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        MockHttpServletResponse first = send("{\"days\":1}", executions);
+        MockHttpServletResponse replayed = send("{\"days\":1}", executions);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, replayed.getStatus());
+        assertEquals("/api/compoff/42", replayed.getHeader("Location"));
+        assertEquals("application/json", replayed.getContentType());
+        assertEquals("true", replayed.getHeader("Idempotent-Replayed"));
+        assertEquals(first.getContentAsString(), replayed.getContentAsString());
+    }
+
+    @Test
+    void bodyOverTheLimitIsRefusedBeforeTheController() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        MockHttpServletResponse response = send("{\"reason\":\"far too long\"}", executions);
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    private MockHttpServletResponse send(String body, AtomicInteger executions) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/compoff/request");
+        request.addHeader(IdempotencyFilter.HEADER, "k1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                executions.incrementAndGet();
+                res.setStatus(201);
+                res.setHeader("Location", "/api/compoff/42");
+                res.setContentType("application/json");
+                res.getOutputStream().write("{\"id\":42}".getBytes(StandardCharsets.UTF_8));
+            }
+        }));
+        return response;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wenxt.leavemanagement.controller;
+
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReportControllerTests extends IntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void leaveAppliedByAnEmployeeIsReportedWhilePending() throws Exception {
+        mockMvc.perform(multipart("/api/leave/apply")
+                        .param("employeeId", "9")
+                        .param("leaveType", "CASUAL")
+                        .param("startDate", "2031-03-03")
+                        .param("endDate", "2031-03-03")
+                        .param("reason", "report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leaveApplication.status").value("PENDING"));
+
+        MvcResult started = mockMvc.perform(get("/api/admin/reports/leave-usage")
+                        .param("fromDate", "2031-01-01")
+                        .param("toDate", "2031-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length, csv);
+        String[] row = lines[1].split(",");
+        assertEquals("9,CASUAL,2031,3,1", String.join(",", row[0], row[1], row[2], row[3], row[4]));
+        assertEquals(0, new BigDecimal(row[5]).compareTo(BigDecimal.ONE));
+    }
+}
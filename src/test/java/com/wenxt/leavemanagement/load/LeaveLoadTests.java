@@ -0,0 +1,369 @@
+package com.wenxt.leavemanagement.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import com.wenxt.leavemanagement.service.CompOffBalanceService;
+import com.wenxt.leavemanagement.service.TeamAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load run against in-memory H2: seeds employees with years of leave and comp-off
+ * history, then drives mixed traffic over real HTTP and reports throughput, p50/p99 latency
+ * and error rates per endpoint. Excluded from the default build; run it with
+ * <pre>mvn -Pload test -Dload.employees=5000 -Dload.threads=64 -Dload.duration-seconds=120</pre>
+ * The report is logged and written to target/load-report.txt.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:leave-load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=20000",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "file.upload-dir=target/load-uploads",
+        "metrics.sql.warn-threshold=1000"
+})
+class LeaveLoadTests {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaveLoadTests.class);
+
+    private static final int EMPLOYEES = Integer.getInteger("load.employees", 2000);
+    private static final int HISTORY_YEARS = Integer.getInteger("load.history-years", 3);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 60);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.001"));
+
+    private static final int SEED_CHUNK = 2000;
+    private static final String BOUNDARY = "----leave-load-boundary";
+    private static final LeaveType[] APPLY_TYPES = {LeaveType.CASUAL, LeaveType.VACATION, LeaveType.MEDICAL, LeaveType.COMP_OFF};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LeaveApplicationRepository leaveRepository;
+    @Autowired
+    private CompOffRepository compOffRepository;
+    @Autowired
+    private CompOffBalanceService balanceService;
+    @Autowired
+    private TeamAvailabilityService teamAvailability;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+    // Applications that may still be cancelled; fed by the seed and by successful applies
+    private final ConcurrentLinkedQueue<Long> cancellable = new ConcurrentLinkedQueue<>();
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void mixedTrafficReport() throws Exception {
+        long seedStarted = System.nanoTime();
+        seed();
+        log.info("Seeded {} employees, {} leaves, {} comp-offs in {} s", EMPLOYEES,
+                leaveRepository.count(), compOffRepository.count(),
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStarted));
+
+        run(WARMUP_SECONDS);
+        Map<String, EndpointStats> measured = run(DURATION_SECONDS);
+
+        String report = report(measured, DURATION_SECONDS);
+        log.info("Load report:\n{}", report);
+        Files.createDirectories(Path.of("target"));
+        Files.writeString(Path.of("target", "load-report.txt"), report);
+
+        // Warm-up errors are not counted, so neither are warm-up requests
+        long requests = measured.values().stream().mapToLong(EndpointStats::count).sum();
+        long errors = measured.values().stream().mapToLong(s -> s.errors.get()).sum();
+        assertTrue(requests > 0, "no request completed");
+        assertTrue(errors <= MAX_ERROR_RATE * requests, errors + " server errors in " + requests + " requests");
+    }
+
+    @AfterEach
+    void shutDownClient() {
+        clientExecutor.shutdownNow();
+    }
+
+    // --- Seed: years of history per employee, written as JDBC batches ---
+
+    private void seed() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LocalDate historyStart = today.minusYears(HISTORY_YEARS).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        Random random = new Random(1);
+        List<LeaveApplication> leaves = new ArrayList<>(SEED_CHUNK);
+        List<CompOff> credits = new ArrayList<>(SEED_CHUNK);
+
+        for (long employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+            // Six leaves a year in distinct weeks, then one approved leave ahead that can be cancelled
+            for (int year = 0; year < HISTORY_YEARS; year++) {
+                for (int i = 0; i < 6; i++) {
+                    LocalDate start = historyStart.plusWeeks(year * 52L + i * 8L + random.nextInt(7));
+                    LeaveStatus status = random.nextInt(10) == 0 ? LeaveStatus.CANCELLED : LeaveStatus.APPROVED;
+                    leaves.add(leave(employeeId, APPLY_TYPES[random.nextInt(3)], start, start.plusDays(random.nextInt(5)), status));
+                }
+                // Weekend work: older credits used up, recent ones still open
+                for (int i = 0; i < 4; i++) {
+                    LocalDate saturday = historyStart.plusWeeks(year * 52L + i * 13L).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+                    credits.add(credit(employeeId, saturday, year < HISTORY_YEARS - 1));
+                }
+            }
+            LocalDate upcoming = today.plusWeeks(2 + random.nextInt(20)).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+            leaves.add(leave(employeeId, LeaveType.VACATION, upcoming, upcoming.plusDays(2), LeaveStatus.APPROVED));
+
+            if (leaves.size() >= SEED_CHUNK || employeeId == EMPLOYEES) {
+                List<LeaveApplication> leaveChunk = List.copyOf(leaves);
+                List<CompOff> creditChunk = List.copyOf(credits);
+                tx.executeWithoutResult(status -> {
+                    leaveRepository.saveAll(leaveChunk);
+                    compOffRepository.saveAll(creditChunk);
+                });
+                leaveChunk.stream()
+                        .filter(l -> l.getStartDate().isAfter(today))
+                        .forEach(l -> cancellable.add(l.getApplicationId()));
+                leaves.clear();
+                credits.clear();
+            }
+        }
+        // Builds every ledger row from the seeded credits, then loads the who's-out index
+        balanceService.reconcile();
+        teamAvailability.rebuild();
+    }
+
+    private static LeaveApplication leave(long employeeId, LeaveType type, LocalDate start, LocalDate end, LeaveStatus status) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setEmployeeId(employeeId);
+        leave.setLeaveType(type);
+        leave.setStartDate(start);
+        leave.setEndDate(end);
+        leave.setDays(BigDecimal.valueOf(end.toEpochDay() - start.toEpochDay() + 1));
+        leave.setReason("seed");
+        leave.setStatus(status);
+        return leave;
+    }
+
+    private static CompOff credit(long employeeId, LocalDate saturday, boolean used) {
+        CompOff credit = new CompOff();
+        credit.setEmployeeId(employeeId);
+        credit.setWorkedDate(saturday);
+        credit.setDays(BigDecimal.ONE);
+        credit.setRemainingDays(used ? BigDecimal.ZERO : BigDecimal.ONE);
+        credit.setStatus(used ? CompOffStatus.USED : CompOffStatus.EARNED);
+        return credit;
+    }
+
+    // --- Traffic ---
+
+    private Map<String, EndpointStats> run(int seconds) throws InterruptedException {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    int dice = ThreadLocalRandom.current().nextInt(100);
+                    if (dice < 35) rememberApplied(call(stats, "POST /api/leave/apply", applyRequest()));
+                    else if (dice < 50) call(stats, "POST /api/compoff/request", compOffRequest());
+                    else if (dice < 85) call(stats, "GET /api/compoff/balance/{id}", balanceRequest());
+                    else cancel(stats);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return stats;
+    }
+
+    private HttpResponse<String> call(Map<String, EndpointStats> stats, String endpoint, HttpRequest request) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            endpointStats.record(System.nanoTime() - started, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            endpointStats.record(System.nanoTime() - started, -1);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest applyRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long employeeId = 1 + random.nextInt(EMPLOYEES);
+        LocalDate start = today.plusDays(7 + random.nextInt(700));
+        LocalDate end = start.plusDays(random.nextInt(4));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        field(body, "employeeId", Long.toString(employeeId));
+        field(body, "leaveType", APPLY_TYPES[random.nextInt(APPLY_TYPES.length)].name());
+        field(body, "startDate", start.toString());
+        field(body, "endDate", end.toString());
+        field(body, "reason", "load");
+        field(body, "confirmLossOfPay", "true");
+        // Every other application carries a scan; a few distinct contents so de-duplication is exercised too
+        if (random.nextBoolean()) {
+            byte[] scan = new byte[16 * 1024 + random.nextInt(48 * 1024)];
+            Arrays.fill(scan, (byte) random.nextInt(8));
+            file(body, "files", "certificate.pdf", "application/pdf", scan);
+        }
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        return HttpRequest.newBuilder(uri("/api/leave/apply"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private HttpRequest compOffRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate saturday = today.plusWeeks(random.nextInt(520)).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+        String json = "{\"employeeId\":" + (1 + random.nextInt(EMPLOYEES))
+                + ",\"entries\":[{\"workedDate\":\"" + saturday + "\",\"days\":1}]}";
+        return HttpRequest.newBuilder(uri("/api/compoff/request"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest balanceRequest() {
+        return HttpRequest.newBuilder(uri("/api/compoff/balance/" + (1 + ThreadLocalRandom.current().nextInt(EMPLOYEES)))).GET().build();
+    }
+
+    private void cancel(Map<String, EndpointStats> stats) {
+        Long id = cancellable.poll();
+        if (id == null) return;
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/admin/leaves/cancel/" + id))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        call(stats, "PATCH /api/admin/leaves/cancel/{id}", request);
+    }
+
+    // Successful applies feed the cancellation pool
+    private void rememberApplied(HttpResponse<String> response) {
+        if (response == null || response.statusCode() != 200) return;
+        try {
+            JsonNode id = objectMapper.readTree(response.body()).path("leaveApplication").path("applicationId");
+            if (id.isNumber()) cancellable.add(id.asLong());
+        } catch (IOException e) {
+            // Unparseable body: nothing to cancel later
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) {
+        body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void file(ByteArrayOutputStream body, String name, String fileName, String contentType, byte[] content) {
+        body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                + fileName + "\"\r\nContent-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --- Report ---
+
+    private static String report(Map<String, EndpointStats> stats, int seconds) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%-36s %9s %9s %8s %8s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx %", "error %", "p50 ms", "p99 ms", "max ms"));
+        new TreeMap<>(stats).forEach((endpoint, s) -> {
+            long[] sorted = s.sortedLatencies();
+            long count = sorted.length;
+            out.append(String.format("%-36s %9d %9.1f %8.2f %8.3f %9.1f %9.1f %9.1f%n",
+                    endpoint, count, count / (double) seconds,
+                    100.0 * s.rejected.get() / Math.max(1, count),
+                    100.0 * s.errors.get() / Math.max(1, count),
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(count == 0 ? 0 : sorted[sorted.length - 1])));
+        });
+        out.append(String.format("%d employees, %d years of history, %d client threads, %d s measured%n",
+                EMPLOYEES, HISTORY_YEARS, THREADS, seconds));
+        return out.toString();
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Latencies of one endpoint. 4xx answers are business rejections (overlaps, duplicate
+     * comp-off dates, insufficient balance) and are counted apart from 5xx and transport errors.
+     */
+    private static final class EndpointStats {
+
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos, int status) {
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            if (status >= 400 && status < 500) rejected.incrementAndGet();
+            else if (status < 0 || status >= 500) errors.incrementAndGet();
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
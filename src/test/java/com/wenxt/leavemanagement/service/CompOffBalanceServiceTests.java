@@ -0,0 +1,39 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.repository.CompOffBalanceRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompOffBalanceServiceTests extends IntegrationTest {
+
+    private static final long EMPLOYEE = 11L;
+
+    @Autowired
+    private CompOffBalanceService balanceService;
+    @Autowired
+    private CompOffBalanceRepository balanceRepository;
+
+    @Test
+    void reconcileSeedsMissingRowsAndCorrectsDrift() {
+        // A credit written without going through the ledger
+        jdbcTemplate.update("INSERT INTO comp_off (id, employee_id, worked_date, status, days, remaining_days) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                5001L, EMPLOYEE, LocalDate.of(2030, 1, 5), CompOffStatus.EARNED.name(), BigDecimal.ONE, BigDecimal.ONE);
+        assertEquals(0, balanceService.getAvailable(EMPLOYEE).compareTo(BigDecimal.ONE));
+
+        assertEquals(1, balanceService.reconcile());
+        assertEquals(0, balanceRepository.findById(EMPLOYEE).orElseThrow().getAvailableDays().compareTo(BigDecimal.ONE));
+
+        jdbcTemplate.update("UPDATE comp_off_balance SET used_days = 3 WHERE employee_id = ?", EMPLOYEE);
+        assertEquals(1, balanceService.reconcile());
+        assertEquals(0, balanceService.getAvailable(EMPLOYEE).compareTo(BigDecimal.ONE));
+        assertEquals(0, balanceService.reconcile());
+    }
+}
@@ -0,0 +1,93 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.LeaveResponse;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.model.CompOffConsumption;
+import com.wenxt.leavemanagement.repository.CompOffConsumptionRepository;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.wenxt.leavemanagement.support.TestFixtures.bankSaturdays;
+import static com.wenxt.leavemanagement.support.TestFixtures.compOffLeave;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompOffDeductionConcurrencyTests extends IntegrationTest {
+
+    private static final int EMPLOYEES = 4;
+    private static final int CREDITS_PER_EMPLOYEE = 6;
+    private static final int APPLICATIONS_PER_EMPLOYEE = 12;
+
+    @Autowired
+    private LeaveApplicationService leaveService;
+    @Autowired
+    private CompOffService compOffService;
+    @Autowired
+    private CompOffBalanceService balanceService;
+    @Autowired
+    private CompOffRepository compOffRepository;
+    @Autowired
+    private CompOffConsumptionRepository consumptionRepository;
+
+    @Test
+    void concurrentCompOffApplicationsNeverOverspend() throws Exception {
+        for (long employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+            bankSaturdays(compOffService, employeeId, LocalDate.of(2030, 1, 5), CREDITS_PER_EMPLOYEE);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LeaveResponse>> results = new ArrayList<>();
+        for (long employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+            for (int i = 0; i < APPLICATIONS_PER_EMPLOYEE; i++) {
+                long employee = employeeId;
+                // One-day leaves on distinct Mondays, so only the balance can stop them
+                LocalDate monday = LocalDate.of(2031, 2, 3).plusWeeks(i);
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return leaveService.applyLeave(compOffLeave(employee, monday), false);
+                }));
+            }
+        }
+        start.countDown();
+
+        Map<Long, AtomicInteger> approved = new ConcurrentHashMap<>();
+        for (Future<LeaveResponse> result : results) {
+            LeaveResponse response = result.get(60, TimeUnit.SECONDS);
+            if (response.getLeaveApplication() != null) {
+                approved.computeIfAbsent(response.getLeaveApplication().getEmployeeId(), e -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+        pool.shutdown();
+
+        for (long employeeId = 1; employeeId <= EMPLOYEES; employeeId++) {
+            BigDecimal consumed = BigDecimal.ZERO;
+            for (CompOffConsumption consumption : consumptionRepository.findAll()) {
+                if (consumption.getEmployeeId() == employeeId) consumed = consumed.add(consumption.getDays());
+            }
+            BigDecimal remaining = BigDecimal.ZERO;
+            for (CompOff credit : compOffRepository.findAll()) {
+                if (credit.getEmployeeId() != employeeId) continue;
+                assertTrue(credit.getRemainingDays().signum() >= 0, "credit " + credit.getId() + " went negative");
+                remaining = remaining.add(credit.getRemainingDays());
+            }
+
+            int granted = approved.getOrDefault(employeeId, new AtomicInteger()).get();
+            assertTrue(granted > 0, "employee " + employeeId + " got no leave at all");
+            // Every granted day was drawn exactly once, and never more than was banked
+            assertEquals(0, consumed.compareTo(BigDecimal.valueOf(granted)), "employee " + employeeId);
+            assertEquals(0, consumed.add(remaining).compareTo(BigDecimal.valueOf(CREDITS_PER_EMPLOYEE)), "employee " + employeeId);
+        }
+        assertEquals(0, balanceService.reconcile(), "ledger drifted from the credit rows");
+    }
+}
@@ -0,0 +1,97 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.CompOffExpiryResultDTO;
+import com.wenxt.leavemanagement.dto.CompOffRequestDTO;
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.wenxt.leavemanagement.support.TestFixtures.bankSaturdays;
+import static com.wenxt.leavemanagement.support.TestFixtures.compOffLeave;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompOffExpiryTests extends IntegrationTest {
+
+    // Each test banks for its own employees
+    private static final long FIRST_EMPLOYEE = 1L;
+    private static final int EMPLOYEES = 5;
+    private static final int CREDITS_PER_EMPLOYEE = 3;
+
+    @Autowired
+    private CompOffExpiryService expiryService;
+    @Autowired
+    private CompOffService compOffService;
+    @Autowired
+    private CompOffBalanceService balanceService;
+    @Autowired
+    private LeaveApplicationService leaveService;
+    @Autowired
+    private CompOffRepository compOffRepository;
+
+    @Test
+    void dueCreditsExpireOnceAndLeaveTheLedgerConsistent() {
+        for (long employeeId = FIRST_EMPLOYEE; employeeId < FIRST_EMPLOYEE + EMPLOYEES; employeeId++) {
+            bankSaturdays(compOffService, employeeId, LocalDate.of(2030, 1, 5), CREDITS_PER_EMPLOYEE);
+        }
+        // The first employee spends one credit, which then has nothing left to expire
+        leaveService.applyLeave(compOffLeave(FIRST_EMPLOYEE, LocalDate.of(2030, 2, 4)), false);
+
+        CompOffExpiryResultDTO early = expiryService.run(LocalDate.of(2030, 3, 1));
+        assertEquals(0, early.getExpiredCredits());
+
+        CompOffExpiryResultDTO due = expiryService.run(LocalDate.of(2031, 1, 1));
+        assertEquals(EMPLOYEES, due.getEmployees());
+        assertEquals(EMPLOYEES * CREDITS_PER_EMPLOYEE - 1, due.getExpiredCredits());
+        assertEquals(0, due.getExpiredDays().compareTo(BigDecimal.valueOf(EMPLOYEES * CREDITS_PER_EMPLOYEE - 1)));
+
+        // Every partition finished for that date, so a rerun has nothing left to do
+        CompOffExpiryResultDTO rerun = expiryService.run(LocalDate.of(2031, 1, 1));
+        assertEquals(0, rerun.getEmployees());
+
+        // The consumed day stays in usedDays, so only the untouched employees end at exactly zero
+        for (long employeeId = FIRST_EMPLOYEE + 1; employeeId < FIRST_EMPLOYEE + EMPLOYEES; employeeId++) {
+            assertEquals(0, balanceService.getAvailable(employeeId).signum(), "employee " + employeeId);
+        }
+        long expired = compOffRepository.findAll().stream()
+                .filter(c -> c.getStatus() == CompOffStatus.EXPIRED).count();
+        assertEquals(EMPLOYEES * CREDITS_PER_EMPLOYEE - 1, expired);
+        assertEquals(0, balanceService.reconcile(), "ledger drifted from the credit rows");
+    }
+
+    @Test
+    void cancellingLeaveAfterExpiryKeepsTheDrawnDaysForfeited() {
+        // One 2-day credit, half of it drawn by a leave; it expires in April 2029
+        long employeeId = 20L;
+        CompOffRequestDTO request = new CompOffRequestDTO();
+        request.setEmployeeId(employeeId);
+        CompOffRequestDTO.CompOffEntry entry = new CompOffRequestDTO.CompOffEntry();
+        entry.setWorkedDate(LocalDate.of(2029, 1, 6));
+        entry.setDays(2);
+        request.getEntries().add(entry);
+        compOffService.requestBulkCompOff(request, true);
+        Long leaveId = leaveService.applyLeave(compOffLeave(employeeId, LocalDate.of(2029, 1, 8)), false)
+                .getLeaveApplication().getApplicationId();
+
+        CompOffExpiryResultDTO expiry = expiryService.run(LocalDate.of(2029, 12, 1));
+        assertEquals(1, expiry.getExpiredCredits());
+        assertEquals(0, expiry.getExpiredDays().compareTo(BigDecimal.ONE));
+
+        leaveService.cancelAdminLeave(leaveId);
+
+        CompOff credit = compOffRepository.findAll().get(0);
+        assertEquals(CompOffStatus.EXPIRED, credit.getStatus());
+        assertEquals(0, credit.getRemainingDays().compareTo(BigDecimal.valueOf(2)));
+        assertEquals(0, balanceService.getAvailable(employeeId).signum());
+        assertEquals(0, balanceService.reconcile(), "ledger drifted from the credit rows");
+
+        // Nothing is open again, so the next run forfeits nothing more
+        assertEquals(0, expiryService.run(LocalDate.of(2029, 12, 2)).getExpiredCredits());
+        assertEquals(0, balanceService.getAvailable(employeeId).signum());
+    }
+}
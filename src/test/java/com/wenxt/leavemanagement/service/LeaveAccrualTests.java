@@ -0,0 +1,126 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.LeaveResponse;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.LeaveAccrual;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.wenxt.leavemanagement.support.TestFixtures.leave;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveAccrualTests extends IntegrationTest {
+
+    @Autowired
+    private LeaveAccrualService accrualService;
+    @Autowired
+    private LeaveApplicationService leaveService;
+    @Autowired
+    private LeaveApplicationRepository leaveRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void snapshotAccruesMonthlyAndCarriesOverUpToTheCap() {
+        BigDecimal march = transactionTemplate.execute(status -> {
+            LeaveAccrual accrual = accrualService.current(1L, LeaveType.CASUAL, LocalDate.of(2030, 3, 15));
+            BigDecimal available = accrual.getAvailableDays();
+            accrualService.book(accrual, new LeaveApplication(), BigDecimal.valueOf(2));
+            return available;
+        });
+        assertEquals(0, march.compareTo(BigDecimal.valueOf(3)));
+
+        BigDecimal december = transactionTemplate.execute(status ->
+                accrualService.current(1L, LeaveType.CASUAL, LocalDate.of(2030, 12, 1)).getAvailableDays());
+        assertEquals(0, december.compareTo(BigDecimal.valueOf(10)));
+
+        // 10 unused days, of which 5 carry over, plus January and February of the new year
+        LeaveAccrual february = transactionTemplate.execute(status ->
+                accrualService.current(1L, LeaveType.CASUAL, LocalDate.of(2031, 2, 1)));
+        assertEquals(2031, february.getAccrualYear());
+        assertEquals(0, february.getCarriedOverDays().compareTo(BigDecimal.valueOf(5)));
+        assertEquals(0, february.getAvailableDays().compareTo(BigDecimal.valueOf(7)));
+
+        transactionTemplate.executeWithoutResult(status ->
+                accrualService.refund(1L, LeaveType.CASUAL, 2031, BigDecimal.ONE, LocalDate.of(2031, 2, 1)));
+        BigDecimal afterRefund = accrualService.getBalances(1L, LocalDate.of(2031, 2, 1)).get(LeaveType.CASUAL);
+        assertEquals(0, afterRefund.compareTo(BigDecimal.valueOf(8)));
+    }
+
+    @Test
+    void lossOfPayIsNeverChargedNorRefunded() {
+        BigDecimal before = medicalBalance(2L);
+
+        // Far more working days than a year's entitlement
+        LeaveApplication tooLong = leave(2L, LeaveType.MEDICAL, LocalDate.of(2031, 3, 3), LocalDate.of(2031, 4, 30));
+        LeaveResponse warned = leaveService.applyLeave(tooLong, false);
+        assertNull(warned.getLeaveApplication());
+        assertNotNull(warned.getWarningMessage());
+
+        LeaveResponse lossOfPay = leaveService.applyLeave(leave(2L, LeaveType.MEDICAL, LocalDate.of(2031, 3, 3), LocalDate.of(2031, 4, 30)), true);
+        assertTrue(lossOfPay.getLeaveApplication().getLossOfPay());
+        assertEquals(0, medicalBalance(2L).compareTo(before));
+
+        LeaveResponse charged = leaveService.applyLeave(leave(2L, LeaveType.MEDICAL, LocalDate.of(2031, 6, 2), LocalDate.of(2031, 6, 2)), false);
+        assertFalse(charged.getLeaveApplication().getLossOfPay());
+        BigDecimal days = charged.getLeaveApplication().getDays();
+        assertEquals(0, medicalBalance(2L).compareTo(before.subtract(days)));
+
+        leaveService.cancelAdminLeave(charged.getLeaveApplication().getApplicationId());
+        leaveService.cancelAdminLeave(lossOfPay.getLeaveApplication().getApplicationId());
+        assertEquals(0, medicalBalance(2L).compareTo(before));
+    }
+
+    @Test
+    void cancellingLeaveChargedToAClosedYearRefundsNothing() {
+        LeaveApplication leave = new LeaveApplication();
+        transactionTemplate.executeWithoutResult(status ->
+                accrualService.book(accrualService.current(3L, LeaveType.CASUAL, LocalDate.of(2030, 12, 1)), leave, BigDecimal.TEN));
+        assertEquals(2030, leave.getChargedYear());
+
+        // 2 unused days carry into 2031; giving the 10 back to 2030 would have carried the full cap of 5
+        transactionTemplate.executeWithoutResult(status ->
+                accrualService.refund(3L, LeaveType.CASUAL, leave.getChargedYear(), leave.getChargedDays(), LocalDate.of(2031, 1, 10)));
+        BigDecimal february = accrualService.getBalances(3L, LocalDate.of(2031, 2, 1)).get(LeaveType.CASUAL);
+        assertEquals(0, february.compareTo(BigDecimal.valueOf(4)));
+    }
+
+    @Test
+    void legacyLeaveIsRefundedOnlyWhenTheSeedCountedIt() {
+        LocalDate today = LocalDate.now();
+        LeaveApplication lastYear = leaveRepository.save(legacyMedicalLeave(4L, today.minusYears(1)));
+        LeaveApplication thisYear = leaveRepository.save(legacyMedicalLeave(4L, today.withDayOfYear(1)));
+        BigDecimal before = medicalBalance(4L);
+
+        // Never charged to any snapshot
+        leaveService.cancelAdminLeave(lastYear.getApplicationId());
+        assertEquals(0, medicalBalance(4L).compareTo(before));
+
+        // Booking seeds the snapshot, which counts this year's legacy leave and takes it over
+        LeaveResponse booked = leaveService.applyLeave(leave(4L, LeaveType.MEDICAL, LocalDate.of(2031, 9, 1), LocalDate.of(2031, 9, 1)), false);
+        BigDecimal days = booked.getLeaveApplication().getDays();
+        assertEquals(0, medicalBalance(4L).compareTo(before.subtract(days)));
+
+        leaveService.cancelAdminLeave(thisYear.getApplicationId());
+        assertEquals(0, medicalBalance(4L).compareTo(before.subtract(days).add(BigDecimal.ONE)));
+    }
+
+    private LeaveApplication legacyMedicalLeave(long employeeId, LocalDate date) {
+        LeaveApplication leave = leave(employeeId, LeaveType.MEDICAL, date, date);
+        leave.setDays(BigDecimal.ONE);
+        leave.setStatus(LeaveStatus.APPROVED);
+        return leave;
+    }
+
+    private BigDecimal medicalBalance(long employeeId) {
+        return accrualService.getBalances(employeeId, LocalDate.now()).get(LeaveType.MEDICAL);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.BulkCancelRequestDTO;
+import com.wenxt.leavemanagement.dto.BulkCancelResultDTO;
+import com.wenxt.leavemanagement.enums.HalfDayType;
+import com.wenxt.leavemanagement.enums.LeaveStatus;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.exception.BadRequestException;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.repository.LeaveApplicationRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.wenxt.leavemanagement.support.TestFixtures.leave;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaveApplicationServiceTests extends IntegrationTest {
+
+    @Autowired
+    private LeaveApplicationService leaveService;
+    @Autowired
+    private LeaveApplicationRepository leaveRepository;
+
+    @Test
+    void bulkCancelLeavesDecidedApplicationsAloneAndReportsThem() {
+        Long pending = leaveService.applyLeave(leave(12L, LeaveType.CASUAL, LocalDate.of(2031, 3, 3), LocalDate.of(2031, 3, 3)), false)
+                .getLeaveApplication().getApplicationId();
+        LeaveApplication rejected = leave(12L, LeaveType.CASUAL, LocalDate.of(2031, 3, 10), LocalDate.of(2031, 3, 10));
+        rejected.setDays(BigDecimal.ONE);
+        rejected.setStatus(LeaveStatus.REJECTED);
+        Long rejectedId = leaveRepository.save(rejected).getApplicationId();
+
+        BulkCancelRequestDTO request = new BulkCancelRequestDTO();
+        request.setApplicationIds(List.of(pending, rejectedId, 999_999L));
+        BulkCancelResultDTO result = leaveService.cancelAdminLeaves(request);
+
+        assertEquals(List.of(pending), result.getCancelledIds());
+        assertEquals(List.of(rejectedId, 999_999L), result.getSkippedIds());
+        assertEquals(LeaveStatus.CANCELLED, leaveRepository.findById(pending).orElseThrow().getStatus());
+        assertEquals(LeaveStatus.REJECTED, leaveRepository.findById(rejectedId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void halfDaysOnOneDateOverlapOnlyInTheSameSession() {
+        LocalDate monday = LocalDate.of(2031, 3, 17);
+        assertNotNull(leaveService.applyLeave(halfDay(HalfDayType.FIRST_HALF, monday), false).getLeaveApplication());
+        assertNotNull(leaveService.applyLeave(halfDay(HalfDayType.SECOND_HALF, monday), false).getLeaveApplication());
+
+        assertThrows(BadRequestException.class, () -> leaveService.applyLeave(halfDay(HalfDayType.FIRST_HALF, monday), false));
+        // A full day still overlaps either half
+        assertThrows(BadRequestException.class, () -> leaveService.applyLeave(leave(13L, LeaveType.CASUAL, monday, monday), false));
+    }
+
+    private LeaveApplication halfDay(HalfDayType session, LocalDate date) {
+        LeaveApplication leave = leave(13L, LeaveType.HALF_DAY, date, date);
+        leave.setHalfDayType(session);
+        return leave;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.enums.CompOffStatus;
+import com.wenxt.leavemanagement.model.CompOff;
+import com.wenxt.leavemanagement.repository.CompOffRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacySchemaMigrationTests extends IntegrationTest {
+
+    private static final long EMPLOYEE = 7L;
+    private static final long LEGACY_LEAVE = 900L;
+    private static final LocalDate WORKED = LocalDate.of(2030, 1, 5);
+
+    @Autowired
+    private LegacySchemaMigration migration;
+    @Autowired
+    private CompOffRepository compOffRepository;
+    @Autowired
+    private CompOffService compOffService;
+    @Autowired
+    private CompOffBalanceService balanceService;
+
+    @Test
+    void splitCreditIsMergedAndItsLegacyLeaveCanStillBeCancelled() {
+        // A database from before the consumption model: half of a 2-day credit was split off and used
+        jdbcTemplate.execute("ALTER TABLE comp_off DROP CONSTRAINT uk_comp_off_employee_worked_date");
+        insertCredit(1001L, CompOffStatus.USED, BigDecimal.ZERO, LEGACY_LEAVE);
+        insertCredit(1002L, CompOffStatus.EARNED, BigDecimal.ONE, null);
+        BigDecimal before = balanceService.getAvailable(EMPLOYEE);
+
+        migration.afterSingletonsInstantiated();
+
+        List<CompOff> credits = compOffRepository.findAll().stream()
+                .filter(credit -> credit.getEmployeeId() == EMPLOYEE).toList();
+        assertEquals(1, credits.size());
+        CompOff merged = credits.get(0);
+        assertEquals(1001L, merged.getId());
+        assertEquals(CompOffStatus.EARNED, merged.getStatus());
+        assertEquals(0, merged.getDays().compareTo(BigDecimal.valueOf(2)));
+        assertEquals(0, merged.getRemainingDays().compareTo(BigDecimal.ONE));
+        assertEquals(0, balanceService.getAvailable(EMPLOYEE).compareTo(before));
+
+        // The key is back, so the same worked date cannot be banked twice any more
+        assertThrows(Exception.class, () -> insertCredit(1003L, CompOffStatus.EARNED, BigDecimal.ONE, null));
+
+        compOffService.reverseUsage(List.of(LEGACY_LEAVE));
+        CompOff restored = compOffRepository.findById(1001L).orElseThrow();
+        assertEquals(0, restored.getRemainingDays().compareTo(BigDecimal.valueOf(2)));
+        assertEquals(0, balanceService.getAvailable(EMPLOYEE).compareTo(BigDecimal.valueOf(2)));
+    }
+
+    private void insertCredit(long id, CompOffStatus status, BigDecimal remaining, Long usedLeaveApplicationId) {
+        jdbcTemplate.update("INSERT INTO comp_off (id, employee_id, worked_date, status, days, remaining_days, "
+                        + "used_leave_application_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, EMPLOYEE, WORKED, status.name(), BigDecimal.ONE, remaining, usedLeaveApplicationId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.wenxt.leavemanagement.service;
+
+import com.wenxt.leavemanagement.dto.LeaveResponse;
+import com.wenxt.leavemanagement.enums.OutboxEventType;
+import com.wenxt.leavemanagement.model.OutboxEvent;
+import com.wenxt.leavemanagement.repository.OutboxEventRepository;
+import com.wenxt.leavemanagement.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.wenxt.leavemanagement.support.TestFixtures.bankSaturdays;
+import static com.wenxt.leavemanagement.support.TestFixtures.compOffLeave;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class OutboxDispatchTests extends IntegrationTest {
+
+    @Autowired
+    private LeaveApplicationService leaveService;
+    @Autowired
+    private CompOffService compOffService;
+    @Autowired
+    private OutboxDispatcher dispatcher;
+    @Autowired
+    private InMemoryOutboxSink sink;
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Test
+    void committedChangesAreDeliveredInOrderAndRetriedAfterAFailure() {
+        bankSaturdays(compOffService, 7L, LocalDate.of(2030, 1, 5), 1);
+        LeaveResponse applied = leaveService.applyLeave(compOffLeave(7L, LocalDate.of(2030, 1, 7)), false);
+        leaveService.cancelAdminLeave(applied.getLeaveApplication().getApplicationId());
+
+        // A failing sink delivers nothing and the batch stays due
+        sink.failNext(1);
+        assertEquals(0, dispatcher.dispatch());
+        OutboxEvent failed = outboxRepository.findAll().stream().filter(e -> e.getAttempts() == 1).findFirst().orElseThrow();
+        assertNotNull(failed.getLastError());
+
+        // Batches of two until the four events are out
+        assertEquals(4, dispatcher.dispatch());
+        List<OutboxEventType> types = sink.events().stream().map(OutboxEvent::getEventType).toList();
+        assertEquals(List.of(OutboxEventType.COMP_OFF_EARNED, OutboxEventType.LEAVE_APPLIED,
+                OutboxEventType.COMP_OFF_USED, OutboxEventType.LEAVE_CANCELLED), types);
+        assertEquals(0, dispatcher.dispatch());
+        assertEquals(0, outboxRepository.countByDeliveredAtIsNullAndNextAttemptAtIsNotNull());
+    }
+}
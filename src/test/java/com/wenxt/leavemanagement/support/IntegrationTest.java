@@ -0,0 +1,48 @@
+package com.wenxt.leavemanagement.support;
+
+import com.wenxt.leavemanagement.service.CompOffBalanceCache;
+import com.wenxt.leavemanagement.service.InMemoryOutboxSink;
+import com.wenxt.leavemanagement.service.TeamAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+/**
+ * Base class for tests that need the whole application. Every subclass shares one context and
+ * one in-memory database (see application-it.properties); each test starts from empty tables.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+public abstract class IntegrationTest {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CompOffBalanceCache balanceCache;
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+    @Autowired
+    private TeamAvailabilityService teamAvailability;
+
+    @AfterEach
+    void clearDatabase() {
+        List<String> tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            tables.forEach(table -> jdbcTemplate.execute("TRUNCATE TABLE " + table));
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        // In-memory state derived from the rows just removed
+        balanceCache.evictAllAfterCommit();
+        outboxSink.clear();
+        teamAvailability.rebuild();
+    }
+}
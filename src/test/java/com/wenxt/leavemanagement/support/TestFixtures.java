@@ -0,0 +1,43 @@
+package com.wenxt.leavemanagement.support;
+
+import com.wenxt.leavemanagement.dto.CompOffRequestDTO;
+import com.wenxt.leavemanagement.enums.LeaveType;
+import com.wenxt.leavemanagement.model.LeaveApplication;
+import com.wenxt.leavemanagement.service.CompOffService;
+
+import java.time.LocalDate;
+
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Banks one approved 1-day credit for each of {@code count} consecutive Saturdays from {@code first}.
+     */
+    public static void bankSaturdays(CompOffService compOffService, long employeeId, LocalDate first, int count) {
+        CompOffRequestDTO request = new CompOffRequestDTO();
+        request.setEmployeeId(employeeId);
+        for (int i = 0; i < count; i++) {
+            CompOffRequestDTO.CompOffEntry entry = new CompOffRequestDTO.CompOffEntry();
+            entry.setWorkedDate(first.plusWeeks(i));
+            entry.setDays(1);
+            request.getEntries().add(entry);
+        }
+        compOffService.requestBulkCompOff(request, true);
+    }
+
+    public static LeaveApplication leave(long employeeId, LeaveType type, LocalDate startDate, LocalDate endDate) {
+        LeaveApplication leave = new LeaveApplication();
+        leave.setEmployeeId(employeeId);
+        leave.setLeaveType(type);
+        leave.setStartDate(startDate);
+        leave.setEndDate(endDate);
+        leave.setReason("test");
+        return leave;
+    }
+
+    public static LeaveApplication compOffLeave(long employeeId, LocalDate date) {
+        return leave(employeeId, LeaveType.COMP_OFF, date, date);
+    }
+}
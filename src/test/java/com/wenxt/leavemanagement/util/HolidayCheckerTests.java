@@ -0,0 +1,65 @@
+package com.wenxt.leavemanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HolidayCheckerTests {
+
+    private final HolidayChecker holidayChecker = new HolidayChecker();
+
+    @Test
+    void countWorkingDaysMatchesDayByDayWalk() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2020, 1, 1);
+
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(2_500));
+            LocalDate end = start.plusDays(random.nextInt(800));
+            assertEquals(walk(start, end), holidayChecker.countWorkingDays(start, end), start + " -> " + end);
+        }
+    }
+
+    @Test
+    void countWorkingDaysHandlesYearEdges() {
+        assertEquals(0, holidayChecker.countWorkingDays(LocalDate.of(2024, 12, 28), LocalDate.of(2024, 12, 29)));
+        assertEquals(0, holidayChecker.countWorkingDays(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1)));
+        assertEquals(walk(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+                holidayChecker.countWorkingDays(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertEquals(0, holidayChecker.countWorkingDays(LocalDate.of(2024, 3, 5), LocalDate.of(2024, 3, 4)));
+    }
+
+    @Test
+    void employeesFollowTheirAssignedCalendar() {
+        WorkingCalendar dubai = new WorkingCalendar("AE-DXB", Set.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY),
+                List.of(MonthDay.of(12, 2)), List.of(LocalDate.of(2025, 3, 31)));
+        HolidayChecker checker = new HolidayChecker();
+        checker.replaceSnapshot(new HolidayCalendarSnapshot(WorkingCalendar.builtIn(HolidayChecker.DEFAULT_CALENDAR), Map.of(7L, dubai)));
+
+        LocalDate sunday = LocalDate.of(2025, 3, 30);
+        assertFalse(checker.isNonWorkingDay(7L, sunday));
+        assertTrue(checker.isNonWorkingDay(8L, sunday));
+        assertTrue(checker.isNonWorkingDay(7L, LocalDate.of(2025, 3, 31)));
+        assertTrue(checker.isNonWorkingDay(7L, LocalDate.of(2026, 12, 2)));
+        // Sun 30 Mar - Sat 5 Apr 2025: Mon 31 is a fixed holiday, Fri/Sat are the weekend
+        assertEquals(4, checker.countWorkingDays(7L, sunday, LocalDate.of(2025, 4, 5)));
+    }
+
+    private int walk(LocalDate start, LocalDate end) {
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            if (!holidayChecker.isNonWorkingDay(date)) count++;
+        }
+        return count;
+    }
+}
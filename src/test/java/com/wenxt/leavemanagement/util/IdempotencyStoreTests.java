@@ -0,0 +1,73 @@
+package com.wenxt.leavemanagement.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTests {
+
+    @Test
+    void concurrentDuplicatesRunOnceAndShareTheResult() throws Exception {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, 60_000);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Callable<String> request = () -> {
+            start.await();
+            CompletableFuture<String> first = store.claim("POST /api/leave/apply k1");
+            if (first != null) return first.get(5, TimeUnit.SECONDS);
+            executions.incrementAndGet();
+            Thread.sleep(50);
+            store.complete("POST /api/leave/apply k1", "created");
+            return "created";
+        };
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) results.add(pool.submit(request));
+        start.countDown();
+
+        for (Future<String> result : results) assertEquals("created", result.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void abandonedKeyCanBeClaimedAgain() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, 60_000);
+        assertNull(store.claim("k"));
+        CompletableFuture<String> waiter = store.claim("k");
+        store.abandon("k");
+
+        assertThrows(CancellationException.class, waiter::join);
+        assertNull(store.claim("k"));
+    }
+
+    @Test
+    void reusingAKeyForAnotherRequestIsRefused() {
+        IdempotencyStore<String> store = new IdempotencyStore<>(100, 60_000);
+        assertNull(store.claim("k", "body-a"));
+        assertThrows(IdempotencyStore.KeyReusedException.class, () -> store.claim("k", "body-b"));
+
+        store.complete("k", "created");
+        assertEquals("created", store.claim("k", "body-a").join());
+        assertThrows(IdempotencyStore.KeyReusedException.class, () -> store.claim("k", "body-b"));
+    }
+
+    @Test
+    void completedKeysExpireAndInFlightKeysAreNeverEvicted() throws Exception {
+        IdempotencyStore<String> store = new IdempotencyStore<>(1, 1);
+        assertNull(store.claim("a"));
+        assertNull(store.claim("b"));
+        // "a" is still in flight, so the full store keeps it
+        assertNotNull(store.claim("a"));
+
+        store.complete("a", "done");
+        Thread.sleep(5);
+        assertNull(store.claim("a"));
+    }
+}